@@ -0,0 +1,55 @@
+package com.spendingapp.loadtest;
+
+import java.util.Arrays;
+
+/**
+ * Per-thread latency samples for one endpoint. Not thread-safe: each worker owns its recorders
+ * and they are merged once the run is over.
+ */
+final class LatencyRecorder {
+  private long[] samples = new long[1024];
+  private int size;
+  private long errors;
+
+  void record(long nanos, boolean ok) {
+    if (size == samples.length) {
+      samples = Arrays.copyOf(samples, size * 2);
+    }
+    samples[size++] = nanos;
+    if (!ok) {
+      errors++;
+    }
+  }
+
+  void merge(LatencyRecorder other) {
+    if (size + other.size > samples.length) {
+      samples = Arrays.copyOf(samples, Math.max(samples.length * 2, size + other.size));
+    }
+    System.arraycopy(other.samples, 0, samples, size, other.size);
+    size += other.size;
+    errors += other.errors;
+  }
+
+  int count() {
+    return size;
+  }
+
+  long errors() {
+    return errors;
+  }
+
+  /** Sorts the samples in place; call once all recorders have been merged. */
+  long[] sorted() {
+    long[] values = Arrays.copyOf(samples, size);
+    Arrays.sort(values);
+    return values;
+  }
+
+  static double percentileMillis(long[] sorted, double percentile) {
+    if (sorted.length == 0) {
+      return 0;
+    }
+    int index = (int) Math.ceil(percentile / 100.0 * sorted.length) - 1;
+    return sorted[Math.max(0, index)] / 1_000_000.0;
+  }
+}
@@ -0,0 +1,280 @@
+package com.spendingapp.loadtest;
+
+import com.spendingapp.SpendingBackendApplication;
+import com.spendingapp.security.LocalTokenVerifier;
+import com.spendingapp.service.PartitionMaintenanceService;
+import com.spendingapp.service.RollupRebuildService;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import redis.embedded.RedisServer;
+
+/**
+ * Starts the backend against an embedded Postgres and Redis with local token verification, seeds
+ * synthetic users, then drives a mix of {@code GET /spending}, {@code GET /insights} and
+ * {@code POST /spending} over HTTP and prints p50/p99 latency and throughput per endpoint.
+ *
+ * <p>Run with {@code mvn -Ploadtest test-compile exec:java}. Tuned through system properties:
+ * {@code loadtest.users} (2000), {@code loadtest.transactions-per-user} (200),
+ * {@code loadtest.concurrency} (32), {@code loadtest.warmup} (10s), {@code loadtest.duration}
+ * (30s) and {@code loadtest.mix} ({@code spending:70,insights:20,create:10}). Extra application
+ * properties can be passed with {@code -Dexec.args="--spring.datasource.hikari.maximum-pool-size=20"}.
+ */
+public final class LoadTestRunner {
+  private static final String[] CATEGORIES = {
+      "Food", "Groceries", "Transport", "Rent", "Utilities", "Entertainment",
+      "Health", "Shopping", "Travel", "Subscriptions", "Education", "Gifts"
+  };
+  private static final String[] MERCHANTS = {
+      "Whole Foods", "Uber", "Netflix", "Amazon", "Shell", "Starbucks", "Target",
+      "Spotify", "Delta", "CVS", "Costco", "Lyft", "Apple", "Trader Joe's", "IKEA"
+  };
+
+  private enum Endpoint {
+    SPENDING("GET /spending"),
+    INSIGHTS("GET /insights"),
+    CREATE("POST /spending");
+
+    final String label;
+
+    Endpoint(String label) {
+      this.label = label;
+    }
+  }
+
+  private LoadTestRunner() {
+  }
+
+  public static void main(String[] args) throws Exception {
+    int users = Integer.getInteger("loadtest.users", 2000);
+    int transactionsPerUser = Integer.getInteger("loadtest.transactions-per-user", 200);
+    int concurrency = Integer.getInteger("loadtest.concurrency", 32);
+    Duration warmup = DurationStyle.detectAndParse(System.getProperty("loadtest.warmup", "10s"));
+    Duration duration = DurationStyle.detectAndParse(System.getProperty("loadtest.duration", "30s"));
+    Endpoint[] mix = parseMix(System.getProperty("loadtest.mix", "spending:70,insights:20,create:10"));
+
+    try (EmbeddedPostgres postgres = EmbeddedPostgres.builder().start()) {
+      int redisPort = freePort();
+      RedisServer redis = new RedisServer(redisPort);
+      redis.start();
+      try (ConfigurableApplicationContext context = startApplication(postgres, redisPort, args)) {
+        int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+        seed(context, users, transactionsPerUser);
+
+        LocalTokenVerifier tokens = context.getBean(LocalTokenVerifier.class);
+        String[] bearerTokens = new String[users];
+        for (int i = 0; i < users; i++) {
+          bearerTokens[i] = "Bearer " + tokens.issue(uid(i), warmup.plus(duration).plusMinutes(10));
+        }
+
+        System.out.printf(Locale.ROOT, "Driving %d workers for %ds (after %ds warmup) across %d users%n",
+            concurrency, duration.toSeconds(), warmup.toSeconds(), users);
+        LatencyRecorder[] results = drive("http://localhost:" + port, bearerTokens, mix, concurrency, warmup, duration);
+        report(results, duration);
+      } finally {
+        redis.stop();
+      }
+    }
+  }
+
+  private static ConfigurableApplicationContext startApplication(
+      EmbeddedPostgres postgres, int redisPort, String[] extraArgs) {
+    List<String> args = new ArrayList<>(List.of(
+        "--server.port=0",
+        "--management.server.port=0",
+        "--spring.datasource.url=jdbc:postgresql://localhost:" + postgres.getPort()
+            + "/postgres?reWriteBatchedInserts=true",
+        "--spring.datasource.username=postgres",
+        "--spring.datasource.password=postgres",
+        "--spring.data.redis.host=localhost",
+        "--spring.data.redis.port=" + redisPort,
+        "--app.auth.verifier=local",
+        "--app.auth.local.secret=" + UUID.randomUUID() + UUID.randomUUID(),
+        // Few synthetic users drive the whole load; per-user limits would measure the limiter
+        "--app.rate-limit.enabled=false",
+        "--logging.level.root=WARN",
+        "--logging.level.org.springframework.security=WARN"));
+    args.addAll(List.of(extraArgs));
+    return SpringApplication.run(SpendingBackendApplication.class, args.toArray(String[]::new));
+  }
+
+  private static void seed(ConfigurableApplicationContext context, int users, int transactionsPerUser) {
+    long start = System.nanoTime();
+    JdbcTemplate jdbc = context.getBean(JdbcTemplate.class);
+    jdbc.update("""
+        insert into users (firebase_uid, email, created_at)
+        select 'load-user-' || g, 'load-user-' || g || '@example.com', now()
+        from generate_series(0, ? - 1) g""", users);
+    jdbc.update("insert into categories (name) select unnest(?::text[]) on conflict do nothing",
+        toArrayLiteral(CATEGORIES));
+    jdbc.update("insert into merchants (name) select unnest(?::text[]) on conflict do nothing",
+        toArrayLiteral(MERCHANTS));
+    jdbc.update("""
+        insert into transactions (id, user_id, amount, category_id, merchant_id, transaction_date, created_at)
+        select nextval('transactions_id_seq'), u.id,
+               round((random() * 500 + 0.01)::numeric, 2),
+               (array(select id from categories order by id))[1 + floor(random() * ?)::int],
+               (array(select id from merchants order by id))[1 + floor(random() * ?)::int],
+               current_date - floor(random() * 730)::int, now()
+        from users u cross join generate_series(1, ?)""",
+        CATEGORIES.length, MERCHANTS.length, transactionsPerUser);
+    // Startup maintenance ran before the seed, so its older months are still in the default partition
+    context.getBean(PartitionMaintenanceService.class).maintain();
+    context.getBean(RollupRebuildService.class).rebuildAll();
+    System.out.printf(Locale.ROOT, "Seeded %d users x %d transactions in %d ms%n",
+        users, transactionsPerUser, (System.nanoTime() - start) / 1_000_000);
+  }
+
+  private static LatencyRecorder[] drive(
+      String baseUrl, String[] bearerTokens, Endpoint[] mix, int concurrency, Duration warmup, Duration duration)
+      throws Exception {
+    HttpClient client = HttpClient.newBuilder()
+        .version(HttpClient.Version.HTTP_1_1)
+        .connectTimeout(Duration.ofSeconds(5))
+        .build();
+    long measureFrom = System.nanoTime() + warmup.toNanos();
+    long stopAt = measureFrom + duration.toNanos();
+
+    ExecutorService workers = Executors.newFixedThreadPool(concurrency);
+    List<Future<LatencyRecorder[]>> futures = new ArrayList<>(concurrency);
+    for (int w = 0; w < concurrency; w++) {
+      futures.add(workers.submit(() -> {
+        LatencyRecorder[] recorders = newRecorders();
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        while (System.nanoTime() < stopAt) {
+          Endpoint endpoint = mix[random.nextInt(mix.length)];
+          HttpRequest request = request(baseUrl, endpoint, bearerTokens[random.nextInt(bearerTokens.length)], random);
+          long start = System.nanoTime();
+          boolean ok;
+          try {
+            int status = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+            ok = status < 400;
+          } catch (IOException ex) {
+            ok = false;
+          }
+          if (start >= measureFrom) {
+            recorders[endpoint.ordinal()].record(System.nanoTime() - start, ok);
+          }
+        }
+        return recorders;
+      }));
+    }
+
+    LatencyRecorder[] merged = newRecorders();
+    for (Future<LatencyRecorder[]> future : futures) {
+      LatencyRecorder[] recorders = future.get();
+      for (int i = 0; i < merged.length; i++) {
+        merged[i].merge(recorders[i]);
+      }
+    }
+    workers.shutdown();
+    return merged;
+  }
+
+  private static HttpRequest request(String baseUrl, Endpoint endpoint, String bearerToken, ThreadLocalRandom random) {
+    HttpRequest.Builder builder = HttpRequest.newBuilder().header("Authorization", bearerToken);
+    return switch (endpoint) {
+      case SPENDING -> builder.uri(URI.create(baseUrl + "/spending")).GET().build();
+      case INSIGHTS -> builder.uri(URI.create(baseUrl + "/insights")).GET().build();
+      case CREATE -> {
+        String body = String.format(Locale.ROOT,
+            "{\"amount\":\"%d.%02d\",\"category\":\"%s\",\"merchant\":\"%s\",\"transactionDate\":\"%s\"}",
+            random.nextInt(1, 500), random.nextInt(100),
+            CATEGORIES[random.nextInt(CATEGORIES.length)], MERCHANTS[random.nextInt(MERCHANTS.length)],
+            LocalDate.now().minusDays(random.nextInt(365)));
+        yield builder.uri(URI.create(baseUrl + "/spending"))
+            .header("Content-Type", "application/json")
+            .POST(HttpRequest.BodyPublishers.ofString(body))
+            .build();
+      }
+    };
+  }
+
+  private static void report(LatencyRecorder[] results, Duration duration) {
+    double seconds = duration.toMillis() / 1000.0;
+    System.out.printf(Locale.ROOT, "%n%-16s %10s %8s %10s %10s %10s %10s%n",
+        "endpoint", "requests", "errors", "req/s", "p50 ms", "p99 ms", "max ms");
+    LatencyRecorder total = new LatencyRecorder();
+    for (Endpoint endpoint : Endpoint.values()) {
+      LatencyRecorder recorder = results[endpoint.ordinal()];
+      printRow(endpoint.label, recorder, seconds);
+      total.merge(recorder);
+    }
+    printRow("all", total, seconds);
+  }
+
+  private static void printRow(String label, LatencyRecorder recorder, double seconds) {
+    long[] sorted = recorder.sorted();
+    System.out.printf(Locale.ROOT, "%-16s %10d %8d %10.1f %10.2f %10.2f %10.2f%n",
+        label, recorder.count(), recorder.errors(), recorder.count() / seconds,
+        LatencyRecorder.percentileMillis(sorted, 50), LatencyRecorder.percentileMillis(sorted, 99),
+        LatencyRecorder.percentileMillis(sorted, 100));
+  }
+
+  // "spending:70,insights:20,create:10" -> 100 slots to pick from uniformly
+  private static Endpoint[] parseMix(String mix) {
+    List<Endpoint> slots = new ArrayList<>();
+    for (String part : mix.split(",")) {
+      String[] weighted = part.trim().split(":");
+      if (weighted.length != 2) {
+        throw new IllegalArgumentException("Invalid loadtest.mix entry: " + part);
+      }
+      Endpoint endpoint = Endpoint.valueOf(weighted[0].trim().toUpperCase(Locale.ROOT));
+      for (int i = Integer.parseInt(weighted[1].trim()); i > 0; i--) {
+        slots.add(endpoint);
+      }
+    }
+    if (slots.isEmpty()) {
+      throw new IllegalArgumentException("loadtest.mix has no weight");
+    }
+    return slots.toArray(Endpoint[]::new);
+  }
+
+  private static LatencyRecorder[] newRecorders() {
+    LatencyRecorder[] recorders = new LatencyRecorder[Endpoint.values().length];
+    for (int i = 0; i < recorders.length; i++) {
+      recorders[i] = new LatencyRecorder();
+    }
+    return recorders;
+  }
+
+  private static String uid(int index) {
+    return "load-user-" + index;
+  }
+
+  private static String toArrayLiteral(String[] values) {
+    StringBuilder literal = new StringBuilder("{");
+    for (int i = 0; i < values.length; i++) {
+      if (i > 0) {
+        literal.append(',');
+      }
+      literal.append('"').append(values[i].replace("\"", "\\\"")).append('"');
+    }
+    return literal.append('}').toString();
+  }
+
+  private static int freePort() throws IOException {
+    try (ServerSocket socket = new ServerSocket(0)) {
+      return socket.getLocalPort();
+    }
+  }
+}
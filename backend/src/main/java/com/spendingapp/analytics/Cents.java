@@ -0,0 +1,23 @@
+package com.spendingapp.analytics;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Conversions between API amounts ({@code BigDecimal}, scale 2) and the {@code long} cents the
+ * aggregation code works in. Amounts are stored as {@code NUMERIC(12,2)}, so every stored amount
+ * fits in a long with room to sum billions of them.
+ */
+public final class Cents {
+  private Cents() {
+  }
+
+  /** Rounds to cents the same way amounts are normalized before they are stored. */
+  public static long of(BigDecimal amount) {
+    return amount.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+  }
+
+  public static BigDecimal toAmount(long cents) {
+    return BigDecimal.valueOf(cents, 2);
+  }
+}
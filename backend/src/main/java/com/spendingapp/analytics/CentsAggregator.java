@@ -0,0 +1,99 @@
+package com.spendingapp.analytics;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+
+/**
+ * Sums of long cents and counts per dense integer slot (a category id, a month offset, ...),
+ * kept in primitive arrays so adding a row allocates nothing once the arrays have grown to the
+ * number of slots. Sums are overflow-checked; {@code BigDecimal} only appears when reading
+ * results out for the API.
+ *
+ * <p>Not thread-safe: aggregate per thread and {@link #merge} the results.
+ */
+public final class CentsAggregator {
+  private long[] totals;
+  private long[] counts;
+  private int slots;
+
+  public CentsAggregator() {
+    this(16);
+  }
+
+  public CentsAggregator(int expectedSlots) {
+    int capacity = Math.max(expectedSlots, 1);
+    this.totals = new long[capacity];
+    this.counts = new long[capacity];
+  }
+
+  /** @throws ArithmeticException if the slot's total overflows a long */
+  public void add(int slot, long cents) {
+    ensureSlot(slot);
+    totals[slot] = Math.addExact(totals[slot], cents);
+    counts[slot]++;
+  }
+
+  public void merge(CentsAggregator other) {
+    if (other.slots > 0) {
+      ensureSlot(other.slots - 1);
+    }
+    for (int slot = 0; slot < other.slots; slot++) {
+      totals[slot] = Math.addExact(totals[slot], other.totals[slot]);
+      counts[slot] += other.counts[slot];
+    }
+  }
+
+  /** One past the highest slot that has been added to. */
+  public int slots() {
+    return slots;
+  }
+
+  public long totalCents(int slot) {
+    return slot < slots ? totals[slot] : 0;
+  }
+
+  public long count(int slot) {
+    return slot < slots ? counts[slot] : 0;
+  }
+
+  public BigDecimal total(int slot) {
+    return Cents.toAmount(totalCents(slot));
+  }
+
+  public long grandTotalCents() {
+    long total = 0;
+    for (int slot = 0; slot < slots; slot++) {
+      total = Math.addExact(total, totals[slot]);
+    }
+    return total;
+  }
+
+  public long grandCount() {
+    long count = 0;
+    for (int slot = 0; slot < slots; slot++) {
+      count += counts[slot];
+    }
+    return count;
+  }
+
+  /** Zeroes every slot but keeps the arrays, so the aggregator can be reused without allocating. */
+  public void reset() {
+    Arrays.fill(totals, 0, slots, 0);
+    Arrays.fill(counts, 0, slots, 0);
+    slots = 0;
+  }
+
+  private void ensureSlot(int slot) {
+    if (slot < 0) {
+      throw new IllegalArgumentException("Negative slot " + slot);
+    }
+    if (slot >= totals.length) {
+      int capacity = Math.max(slot + 1, totals.length * 2);
+      totals = Arrays.copyOf(totals, capacity);
+      counts = Arrays.copyOf(counts, capacity);
+    }
+    if (slot >= slots) {
+      slots = slot + 1;
+    }
+  }
+}
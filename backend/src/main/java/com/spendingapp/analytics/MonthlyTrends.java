@@ -0,0 +1,104 @@
+package com.spendingapp.analytics;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * One user's per-category monthly totals in cents over a window of {@code months} months, plus
+ * the {@value #LOOKBACK_MONTHS} months before it so every reported month has a full rolling
+ * {@value #AVERAGE_MONTHS}-month average.
+ *
+ * <p>Months are numbered from the oldest lookback month (0) to the last reported month
+ * ({@code months + LOOKBACK_MONTHS - 1}); {@link #total} and {@link #rollingAverage} take the
+ * reported month index instead, 0 being the first reported month.
+ *
+ * <p>Not thread-safe: use one instance per thread and {@link #reset} it between users.
+ */
+public final class MonthlyTrends {
+  public static final int AVERAGE_MONTHS = 3;
+  public static final int LOOKBACK_MONTHS = AVERAGE_MONTHS - 1;
+
+  private final int months;
+  private final Map<Integer, long[]> totalsByCategory = new HashMap<>();
+
+  public MonthlyTrends(int months) {
+    if (months <= AVERAGE_MONTHS) {
+      throw new IllegalArgumentException("Trends need more than " + AVERAGE_MONTHS + " months, got " + months);
+    }
+    this.months = months;
+  }
+
+  /** Reported months; the last one is the month movers are measured in. */
+  public int months() {
+    return months;
+  }
+
+  /** @param month 0 for the oldest lookback month up to {@code months + LOOKBACK_MONTHS - 1} */
+  public void add(int categoryId, int month, long cents) {
+    if (month < 0 || month >= months + LOOKBACK_MONTHS) {
+      throw new IllegalArgumentException("Month " + month + " is outside the window");
+    }
+    long[] totals = totalsByCategory.computeIfAbsent(categoryId, id -> new long[months + LOOKBACK_MONTHS]);
+    totals[month] = Math.addExact(totals[month], cents);
+  }
+
+  public boolean isEmpty() {
+    return totalsByCategory.isEmpty();
+  }
+
+  public void reset() {
+    totalsByCategory.clear();
+  }
+
+  /** Ids of the categories with any spending in the window, ascending. */
+  public int[] categoryIds() {
+    return totalsByCategory.keySet().stream().mapToInt(Integer::intValue).sorted().toArray();
+  }
+
+  public long total(int categoryId, int reportedMonth) {
+    return totalsByCategory.get(categoryId)[reportedMonth + LOOKBACK_MONTHS];
+  }
+
+  /** Mean of the month and the {@value #LOOKBACK_MONTHS} before it, rounded half up to a cent. */
+  public long rollingAverage(int categoryId, int reportedMonth) {
+    // Window index reportedMonth + LOOKBACK_MONTHS, so its average starts at reportedMonth
+    return average(totalsByCategory.get(categoryId), reportedMonth, AVERAGE_MONTHS);
+  }
+
+  /** Mean of the {@value #AVERAGE_MONTHS} months before the last reported month. */
+  public long previousAverage(int categoryId) {
+    int last = months + LOOKBACK_MONTHS - 1;
+    return average(totalsByCategory.get(categoryId), last - AVERAGE_MONTHS, AVERAGE_MONTHS);
+  }
+
+  /** Last reported month's total minus {@link #previousAverage}. */
+  public long change(int categoryId) {
+    return total(categoryId, months - 1) - previousAverage(categoryId);
+  }
+
+  /**
+   * Up to {@code limit} categories whose last month moved furthest from their previous average,
+   * largest absolute change first; ties go to the lower id so snapshots are deterministic.
+   */
+  public int[] biggestMovers(int limit) {
+    return Arrays.stream(categoryIds())
+        .filter(id -> change(id) != 0)
+        .boxed()
+        .sorted((a, b) -> {
+          int byChange = Long.compare(Math.abs(change(b)), Math.abs(change(a)));
+          return byChange != 0 ? byChange : Integer.compare(a, b);
+        })
+        .limit(limit)
+        .mapToInt(Integer::intValue)
+        .toArray();
+  }
+
+  private static long average(long[] totals, int first, int count) {
+    long sum = 0;
+    for (int month = first; month < first + count; month++) {
+      sum = Math.addExact(sum, totals[month]);
+    }
+    return Math.floorDiv(Math.addExact(Math.multiplyExact(sum, 2), count), 2L * count);
+  }
+}
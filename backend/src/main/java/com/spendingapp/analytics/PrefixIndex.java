@@ -0,0 +1,160 @@
+package com.spendingapp.analytics;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * Names ranked by how often they were used, searchable by case-insensitive prefix. Names sit in
+ * parallel arrays sorted by their lower-cased form, so a prefix lookup is a binary search to the
+ * first match and a scan to the last, keeping the {@code limit} most used on the way.
+ *
+ * <p>Immutable: {@link #withUse} returns an updated copy, so lookups never lock. A copy costs
+ * O(names), which is a few hundred entries for a typical user.
+ */
+public final class PrefixIndex {
+  private static final PrefixIndex EMPTY = new PrefixIndex(new String[0], new String[0], new long[0]);
+
+  // Arrays, a header and per entry two references and a long, plus the lower-cased key's chars
+  private static final int BASE_BYTES = 64;
+  private static final int ENTRY_BYTES = 56;
+
+  private final String[] keys;
+  private final String[] names;
+  private final long[] uses;
+
+  private PrefixIndex(String[] keys, String[] names, long[] uses) {
+    this.keys = keys;
+    this.names = names;
+    this.uses = uses;
+  }
+
+  public static PrefixIndex empty() {
+    return EMPTY;
+  }
+
+  public static PrefixIndex of(Map<String, Long> usesByName) {
+    String[] sorted = usesByName.keySet().stream()
+        .sorted(Comparator.comparing(PrefixIndex::key).thenComparing(Comparator.naturalOrder()))
+        .toArray(String[]::new);
+    String[] keys = new String[sorted.length];
+    long[] uses = new long[sorted.length];
+    for (int i = 0; i < sorted.length; i++) {
+      keys[i] = key(sorted[i]);
+      uses[i] = usesByName.get(sorted[i]);
+    }
+    return new PrefixIndex(keys, sorted, uses);
+  }
+
+  /** A copy with {@code name} used once more, added if it is new. */
+  public PrefixIndex withUse(String name) {
+    String key = key(name);
+    int index = find(key, name);
+    if (index >= 0) {
+      long[] updated = uses.clone();
+      updated[index]++;
+      return new PrefixIndex(keys, names, updated);
+    }
+
+    int insertAt = -index - 1;
+    String[] newKeys = new String[keys.length + 1];
+    String[] newNames = new String[names.length + 1];
+    long[] newUses = new long[uses.length + 1];
+    System.arraycopy(keys, 0, newKeys, 0, insertAt);
+    System.arraycopy(names, 0, newNames, 0, insertAt);
+    System.arraycopy(uses, 0, newUses, 0, insertAt);
+    newKeys[insertAt] = key;
+    newNames[insertAt] = name;
+    newUses[insertAt] = 1;
+    System.arraycopy(keys, insertAt, newKeys, insertAt + 1, keys.length - insertAt);
+    System.arraycopy(names, insertAt, newNames, insertAt + 1, names.length - insertAt);
+    System.arraycopy(uses, insertAt, newUses, insertAt + 1, uses.length - insertAt);
+    return new PrefixIndex(newKeys, newNames, newUses);
+  }
+
+  /**
+   * Up to {@code limit} names starting with {@code prefix} (ignoring case), most used first and
+   * then alphabetically. An empty prefix matches every name.
+   */
+  public List<String> suggest(String prefix, int limit) {
+    String keyPrefix = key(prefix);
+    int first = lowerBound(keyPrefix);
+    // Min-heap on rank, so the least used of the current top sits on top to be replaced
+    PriorityQueue<Integer> top = new PriorityQueue<>(limit + 1, (a, b) -> compareRank(b, a));
+    for (int i = first; i < keys.length && keys[i].startsWith(keyPrefix); i++) {
+      top.add(i);
+      if (top.size() > limit) {
+        top.poll();
+      }
+    }
+    Integer[] ranked = top.toArray(new Integer[0]);
+    Arrays.sort(ranked, this::compareRank);
+    List<String> suggestions = new ArrayList<>(ranked.length);
+    for (int index : ranked) {
+      suggestions.add(names[index]);
+    }
+    return suggestions;
+  }
+
+  public int size() {
+    return names.length;
+  }
+
+  /** Rough heap footprint, for weighing indexes against a memory budget. */
+  public int estimatedBytes() {
+    long bytes = BASE_BYTES;
+    for (String key : keys) {
+      bytes += ENTRY_BYTES + key.length();
+    }
+    return (int) Math.min(bytes, Integer.MAX_VALUE);
+  }
+
+  // More uses first, then alphabetical
+  private int compareRank(int a, int b) {
+    int byUses = Long.compare(uses[b], uses[a]);
+    return byUses != 0 ? byUses : names[a].compareTo(names[b]);
+  }
+
+  private int lowerBound(String key) {
+    int low = 0;
+    int high = keys.length;
+    while (low < high) {
+      int mid = (low + high) >>> 1;
+      if (keys[mid].compareTo(key) < 0) {
+        low = mid + 1;
+      } else {
+        high = mid;
+      }
+    }
+    return low;
+  }
+
+  // Index of the entry, or -(insertion point) - 1 as in Arrays.binarySearch
+  private int find(String key, String name) {
+    int low = 0;
+    int high = keys.length - 1;
+    while (low <= high) {
+      int mid = (low + high) >>> 1;
+      int cmp = keys[mid].compareTo(key);
+      if (cmp == 0) {
+        cmp = names[mid].compareTo(name);
+      }
+      if (cmp < 0) {
+        low = mid + 1;
+      } else if (cmp > 0) {
+        high = mid - 1;
+      } else {
+        return mid;
+      }
+    }
+    return -(low + 1);
+  }
+
+  private static String key(String name) {
+    return name.toLowerCase(Locale.ROOT);
+  }
+}
@@ -0,0 +1,33 @@
+package com.spendingapp.analytics;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Assigns dense slot numbers to keys in first-seen order, for keys that have no id of their own
+ * (e.g. a category name paired with a month). Looking up a known key does not allocate.
+ */
+public final class SlotIndex<K> {
+  private final Map<K, Integer> slotsByKey = new HashMap<>();
+  private final List<K> keys = new ArrayList<>();
+
+  public int slotOf(K key) {
+    Integer slot = slotsByKey.get(key);
+    if (slot == null) {
+      slot = keys.size();
+      slotsByKey.put(key, slot);
+      keys.add(key);
+    }
+    return slot;
+  }
+
+  public K key(int slot) {
+    return keys.get(slot);
+  }
+
+  public int size() {
+    return keys.size();
+  }
+}
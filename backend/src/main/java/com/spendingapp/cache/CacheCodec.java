@@ -0,0 +1,23 @@
+package com.spendingapp.cache;
+
+/**
+ * Compact binary form of one cache's values in Redis, used instead of JDK serialization.
+ *
+ * <p>Every payload starts with the codec's {@link #version()}. A payload carrying any other
+ * version (written by an older or newer release, or by JDK serialization before this cache had
+ * a codec) reads as a miss, so changing the layout only means bumping the version: old entries
+ * are recomputed instead of failing to decode.
+ */
+public interface CacheCodec<T> {
+  /** The cache whose values this codec writes. */
+  String cacheName();
+
+  /** Layout version, 1 to 127; the first byte of every payload. */
+  int version();
+
+  Class<T> type();
+
+  void write(T value, CodecOutput out);
+
+  T read(CodecInput in);
+}
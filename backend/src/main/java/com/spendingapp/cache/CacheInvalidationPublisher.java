@@ -0,0 +1,45 @@
+package com.spendingapp.cache;
+
+import java.util.UUID;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+/**
+ * Broadcasts L1 invalidations over Redis pub/sub. Messages are {@code instanceId|cache|key};
+ * an empty key means "clear the whole cache". Cache keys must therefore be strings.
+ */
+public class CacheInvalidationPublisher {
+  public static final String CHANNEL = "cache-invalidation";
+  static final char SEPARATOR = '|';
+
+  private static final Logger logger = LoggerFactory.getLogger(CacheInvalidationPublisher.class);
+
+  private final StringRedisTemplate redisTemplate;
+  private final String instanceId = UUID.randomUUID().toString();
+
+  public CacheInvalidationPublisher(StringRedisTemplate redisTemplate) {
+    this.redisTemplate = redisTemplate;
+  }
+
+  public String getInstanceId() {
+    return instanceId;
+  }
+
+  public void publishEvict(String cacheName, Object key) {
+    publish(cacheName, String.valueOf(key));
+  }
+
+  public void publishClear(String cacheName) {
+    publish(cacheName, "");
+  }
+
+  private void publish(String cacheName, String key) {
+    try {
+      redisTemplate.convertAndSend(CHANNEL, instanceId + SEPARATOR + cacheName + SEPARATOR + key);
+    } catch (RuntimeException ex) {
+      // Other replicas fall back to their L1 expiry; the local and Redis tiers are already evicted.
+      logger.warn("Failed to publish invalidation for cache {}: {}", cacheName, ex.getMessage());
+    }
+  }
+}
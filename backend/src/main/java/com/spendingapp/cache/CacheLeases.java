@@ -0,0 +1,66 @@
+package com.spendingapp.cache;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+
+/**
+ * Short Redis leases ({@code SET NX PX}) that let one replica at a time recompute a cache entry.
+ * A lease expires on its own, so a replica that dies mid-computation only delays the others by
+ * the lease TTL.
+ */
+public class CacheLeases {
+  /** Returned when Redis is unreachable: the caller proceeds as if it held the lease. */
+  static final String UNGUARDED = "";
+
+  private static final Logger logger = LoggerFactory.getLogger(CacheLeases.class);
+  private static final String KEY_PREFIX = "cache-lease:";
+
+  // Only the holder may release, so a lease that expired and was re-taken is left alone
+  private static final RedisScript<Long> RELEASE = new DefaultRedisScript<>(
+      "if redis.call('GET', KEYS[1]) == ARGV[1] then return redis.call('DEL', KEYS[1]) end return 0",
+      Long.class);
+
+  private final StringRedisTemplate redisTemplate;
+  private final Duration leaseTtl;
+
+  public CacheLeases(StringRedisTemplate redisTemplate, Duration leaseTtl) {
+    this.redisTemplate = redisTemplate;
+    this.leaseTtl = leaseTtl;
+  }
+
+  /** Returns a token to pass to {@link #release}, or null if another caller holds the lease. */
+  public String tryAcquire(String cacheName, Object key) {
+    String token = UUID.randomUUID().toString();
+    try {
+      Boolean acquired = redisTemplate.opsForValue()
+          .setIfAbsent(leaseKey(cacheName, key), token, leaseTtl.toMillis(), TimeUnit.MILLISECONDS);
+      return Boolean.TRUE.equals(acquired) ? token : null;
+    } catch (RuntimeException ex) {
+      logger.warn("Failed to take cache lease for {}: {}", cacheName, ex.getMessage());
+      return UNGUARDED;
+    }
+  }
+
+  public void release(String cacheName, Object key, String token) {
+    if (UNGUARDED.equals(token)) {
+      return;
+    }
+    try {
+      redisTemplate.execute(RELEASE, List.of(leaseKey(cacheName, key)), token);
+    } catch (RuntimeException ex) {
+      // The lease expires on its own
+      logger.warn("Failed to release cache lease for {}: {}", cacheName, ex.getMessage());
+    }
+  }
+
+  private static String leaseKey(String cacheName, Object key) {
+    return KEY_PREFIX + cacheName + ":" + key;
+  }
+}
@@ -0,0 +1,61 @@
+package com.spendingapp.cache;
+
+import java.nio.charset.StandardCharsets;
+
+/** Reads what {@link CodecOutput} wrote. Truncated or malformed input throws. */
+public final class CodecInput {
+  private final byte[] bytes;
+  private int position;
+
+  public CodecInput(byte[] bytes) {
+    this.bytes = bytes;
+  }
+
+  public int readByte() {
+    require(1);
+    return bytes[position++] & 0xFF;
+  }
+
+  public long readVarLong() {
+    long value = 0;
+    for (int shift = 0; shift < 64; shift += 7) {
+      int b = readByte();
+      value |= (long) (b & 0x7F) << shift;
+      if ((b & 0x80) == 0) {
+        return value;
+      }
+    }
+    throw new IllegalArgumentException("Varint longer than 10 bytes at offset " + position);
+  }
+
+  public long readSignedVarLong() {
+    long value = readVarLong();
+    return (value >>> 1) ^ -(value & 1);
+  }
+
+  public int readVarInt() {
+    long value = readVarLong();
+    if (value > 0xFFFFFFFFL) {
+      throw new IllegalArgumentException("Varint " + value + " does not fit in an int");
+    }
+    return (int) value;
+  }
+
+  public String readString() {
+    int length = readVarInt();
+    require(length);
+    String value = new String(bytes, position, length, StandardCharsets.UTF_8);
+    position += length;
+    return value;
+  }
+
+  public boolean hasRemaining() {
+    return position < bytes.length;
+  }
+
+  private void require(int count) {
+    if (count < 0 || bytes.length - position < count) {
+      throw new IllegalArgumentException("Truncated payload: needed " + count + " bytes at offset " + position);
+    }
+  }
+}
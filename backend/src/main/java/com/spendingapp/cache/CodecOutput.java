@@ -0,0 +1,61 @@
+package com.spendingapp.cache;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Growable byte buffer for {@link CacheCodec}s. Integers are written as LEB128 varints (seven
+ * bits per byte), so the small counts, ids and cent amounts cached values are made of take one
+ * to four bytes instead of a fixed eight.
+ */
+public final class CodecOutput {
+  private byte[] buffer;
+  private int size;
+
+  public CodecOutput(int initialCapacity) {
+    this.buffer = new byte[Math.max(initialCapacity, 16)];
+  }
+
+  public void writeByte(int value) {
+    ensureCapacity(1);
+    buffer[size++] = (byte) value;
+  }
+
+  /** A non-negative value; negative values still round-trip but take ten bytes. */
+  public void writeVarLong(long value) {
+    ensureCapacity(10);
+    while ((value & ~0x7FL) != 0) {
+      buffer[size++] = (byte) ((value & 0x7F) | 0x80);
+      value >>>= 7;
+    }
+    buffer[size++] = (byte) value;
+  }
+
+  /** Zigzag-encoded, so small negative values (refunds) stay as short as small positive ones. */
+  public void writeSignedVarLong(long value) {
+    writeVarLong((value << 1) ^ (value >> 63));
+  }
+
+  public void writeVarInt(int value) {
+    writeVarLong(Integer.toUnsignedLong(value));
+  }
+
+  /** Length-prefixed UTF-8. */
+  public void writeString(String value) {
+    byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+    writeVarInt(bytes.length);
+    ensureCapacity(bytes.length);
+    System.arraycopy(bytes, 0, buffer, size, bytes.length);
+    size += bytes.length;
+  }
+
+  public byte[] toByteArray() {
+    return Arrays.copyOf(buffer, size);
+  }
+
+  private void ensureCapacity(int extra) {
+    if (size + extra > buffer.length) {
+      buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, size + extra));
+    }
+  }
+}
@@ -0,0 +1,57 @@
+package com.spendingapp.cache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+/**
+ * Adapts a {@link CacheCodec} to the Redis cache's value serializer. Payloads from another
+ * codec version deserialize to null, which the Redis cache treats as a miss.
+ */
+public class CodecRedisSerializer<T> implements RedisSerializer<Object> {
+  private final CacheCodec<T> codec;
+  private final Counter versionMismatches;
+
+  public CodecRedisSerializer(CacheCodec<T> codec, MeterRegistry meterRegistry) {
+    if (codec.version() < 1 || codec.version() > 127) {
+      throw new IllegalArgumentException("Codec version for " + codec.cacheName() + " must be 1 to 127");
+    }
+    this.codec = codec;
+    this.versionMismatches = Counter.builder("cache.codec.version.mismatches")
+        .description("Cached payloads ignored because another codec version wrote them")
+        .tag("cache", codec.cacheName())
+        .register(meterRegistry);
+  }
+
+  @Override
+  public byte[] serialize(Object value) {
+    if (!codec.type().isInstance(value)) {
+      throw new SerializationException(
+          "Cache " + codec.cacheName() + " only holds " + codec.type().getSimpleName() + ", not "
+              + (value == null ? "null" : value.getClass().getName()));
+    }
+    CodecOutput out = new CodecOutput(64);
+    out.writeByte(codec.version());
+    codec.write(codec.type().cast(value), out);
+    return out.toByteArray();
+  }
+
+  @Override
+  public Object deserialize(byte[] bytes) {
+    if (bytes == null || bytes.length == 0) {
+      return null;
+    }
+    if (bytes[0] != codec.version()) {
+      versionMismatches.increment();
+      return null;
+    }
+    CodecInput in = new CodecInput(bytes);
+    in.readByte();
+    try {
+      return codec.read(in);
+    } catch (RuntimeException ex) {
+      throw new SerializationException("Could not decode " + codec.cacheName() + " entry", ex);
+    }
+  }
+}
@@ -0,0 +1,65 @@
+package com.spendingapp.cache;
+
+import com.spendingapp.analytics.Cents;
+import com.spendingapp.dto.InsightDto;
+import com.spendingapp.dto.InsightsResponse;
+import com.spendingapp.service.DictionaryCache;
+import java.util.ArrayList;
+import java.util.List;
+import org.springframework.stereotype.Component;
+
+/**
+ * Version 1 layout of an {@code insights} entry: total spent in cents, transaction count, and
+ * per category its dictionary id and total in cents, all as varints.
+ *
+ * <p>Categories travel as {@code categories.id} rather than their names, which is usually one
+ * byte instead of a dozen, and decode back to the name instances {@link DictionaryCache} already
+ * holds, so entries promoted into the local tier share one copy of each name.
+ */
+@Component
+public class InsightsCodec implements CacheCodec<InsightsResponse> {
+  private final DictionaryCache dictionary;
+
+  public InsightsCodec(DictionaryCache dictionary) {
+    this.dictionary = dictionary;
+  }
+
+  @Override
+  public String cacheName() {
+    return "insights";
+  }
+
+  @Override
+  public int version() {
+    return 1;
+  }
+
+  @Override
+  public Class<InsightsResponse> type() {
+    return InsightsResponse.class;
+  }
+
+  @Override
+  public void write(InsightsResponse value, CodecOutput out) {
+    out.writeSignedVarLong(Cents.of(value.totalSpent()));
+    out.writeVarInt(value.transactionCount());
+    out.writeVarInt(value.byCategory().size());
+    for (InsightDto insight : value.byCategory()) {
+      out.writeVarInt(dictionary.categoryId(insight.category()));
+      out.writeSignedVarLong(Cents.of(insight.total()));
+    }
+  }
+
+  @Override
+  public InsightsResponse read(CodecInput in) {
+    long totalCents = in.readSignedVarLong();
+    int transactionCount = in.readVarInt();
+    int categories = in.readVarInt();
+    List<InsightDto> byCategory = new ArrayList<>(Math.min(categories, 1024));
+    for (int i = 0; i < categories; i++) {
+      String category = dictionary.categoryName(in.readVarInt());
+      byCategory.add(new InsightDto(category, Cents.toAmount(in.readSignedVarLong())));
+    }
+    return new InsightsResponse(Cents.toAmount(totalCents), transactionCount, List.copyOf(byCategory));
+  }
+}
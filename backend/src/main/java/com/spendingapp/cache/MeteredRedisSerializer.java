@@ -0,0 +1,59 @@
+package com.spendingapp.cache;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.util.concurrent.TimeUnit;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+/**
+ * Records, per cache, how large each value is once encoded for Redis and how long encoding and
+ * decoding take, whatever the underlying serializer.
+ */
+public class MeteredRedisSerializer implements RedisSerializer<Object> {
+  private final RedisSerializer<Object> delegate;
+  private final DistributionSummary encodedBytes;
+  private final Timer encodeTimer;
+  private final Timer decodeTimer;
+
+  public MeteredRedisSerializer(String cacheName, RedisSerializer<Object> delegate, MeterRegistry meterRegistry) {
+    this.delegate = delegate;
+    this.encodedBytes = DistributionSummary.builder("cache.codec.encoded")
+        .description("Size of cache values as stored in Redis")
+        .baseUnit("bytes")
+        .tag("cache", cacheName)
+        .publishPercentiles(0.5, 0.99)
+        .register(meterRegistry);
+    this.encodeTimer = codecTimer(meterRegistry, cacheName, "encode");
+    this.decodeTimer = codecTimer(meterRegistry, cacheName, "decode");
+  }
+
+  private static Timer codecTimer(MeterRegistry meterRegistry, String cacheName, String operation) {
+    return Timer.builder("cache.codec.time")
+        .tag("cache", cacheName)
+        .tag("operation", operation)
+        .publishPercentiles(0.5, 0.99)
+        .register(meterRegistry);
+  }
+
+  @Override
+  public byte[] serialize(Object value) {
+    long start = System.nanoTime();
+    byte[] bytes = delegate.serialize(value);
+    encodeTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    if (bytes != null) {
+      encodedBytes.record(bytes.length);
+    }
+    return bytes;
+  }
+
+  @Override
+  public Object deserialize(byte[] bytes) {
+    long start = System.nanoTime();
+    try {
+      return delegate.deserialize(bytes);
+    } finally {
+      decodeTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+  }
+}
@@ -0,0 +1,282 @@
+package com.spendingapp.cache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.SimpleValueWrapper;
+
+/**
+ * A bounded in-process cache (L1) in front of a shared Redis cache (L2).
+ *
+ * <p>Reads try L1, then L2, and promote L2 hits into L1. Evictions go to both tiers and are
+ * broadcast so other replicas drop their L1 copy. L1 entries also expire on their own, which
+ * bounds staleness if an invalidation message is ever lost.
+ *
+ * <p>{@link #get(Object, Callable)} (used by {@code @Cacheable(sync = true)}) is single-flight:
+ * concurrent misses for a key in this JVM share one load, and across replicas a Redis lease lets
+ * only one of them run it while the rest poll Redis for the result. A caller that waits longer
+ * than the wait timeout gets the value evicted from L1 within the stale window, if there is one,
+ * and otherwise loads it itself.
+ */
+public class TwoTierCache implements Cache {
+  private static final long LEASE_POLL_MILLIS = 25;
+
+  private final String name;
+  private final com.github.benmanes.caffeine.cache.Cache<Object, Object> local;
+  private final Cache remote;
+  private final CacheInvalidationPublisher invalidationPublisher;
+  private final com.github.benmanes.caffeine.cache.Cache<Object, Object> stale;
+  private final CacheLeases leases;
+  private final long waitTimeoutNanos;
+  private final ConcurrentMap<Object, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+
+  private final Counter localHits;
+  private final Counter localMisses;
+  private final Counter remoteHits;
+  private final Counter remoteMisses;
+  private final Counter loads;
+  private final Counter coalescedLocal;
+  private final Counter coalescedRemote;
+  private final Counter staleServed;
+
+  /**
+   * @param stale recently evicted values kept for the stale window, or null to never serve stale
+   */
+  public TwoTierCache(
+      String name,
+      com.github.benmanes.caffeine.cache.Cache<Object, Object> local,
+      Cache remote,
+      CacheInvalidationPublisher invalidationPublisher,
+      com.github.benmanes.caffeine.cache.Cache<Object, Object> stale,
+      CacheLeases leases,
+      Duration waitTimeout,
+      MeterRegistry meterRegistry) {
+    this.name = name;
+    this.local = local;
+    this.remote = remote;
+    this.invalidationPublisher = invalidationPublisher;
+    this.stale = stale;
+    this.leases = leases;
+    this.waitTimeoutNanos = waitTimeout.toNanos();
+    this.loads = singleFlightCounter(meterRegistry, name, "loaded");
+    this.coalescedLocal = singleFlightCounter(meterRegistry, name, "coalesced-local");
+    this.coalescedRemote = singleFlightCounter(meterRegistry, name, "coalesced-remote");
+    this.staleServed = singleFlightCounter(meterRegistry, name, "stale");
+    this.localHits = tierCounter(meterRegistry, name, "l1", "hit");
+    this.localMisses = tierCounter(meterRegistry, name, "l1", "miss");
+    this.remoteHits = tierCounter(meterRegistry, name, "l2", "hit");
+    this.remoteMisses = tierCounter(meterRegistry, name, "l2", "miss");
+  }
+
+  static Counter tierCounter(MeterRegistry meterRegistry, String cacheName, String tier, String result) {
+    return Counter.builder("cache.tier.gets")
+        .tag("cache", cacheName)
+        .tag("tier", tier)
+        .tag("result", result)
+        .register(meterRegistry);
+  }
+
+  private static Counter singleFlightCounter(MeterRegistry meterRegistry, String cacheName, String outcome) {
+    return Counter.builder("cache.single.flight")
+        .description("How sync cache misses were answered")
+        .tag("cache", cacheName)
+        .tag("outcome", outcome)
+        .register(meterRegistry);
+  }
+
+  @Override
+  public String getName() {
+    return name;
+  }
+
+  @Override
+  public Object getNativeCache() {
+    return local;
+  }
+
+  @Override
+  public ValueWrapper get(Object key) {
+    Object localValue = local.getIfPresent(key);
+    if (localValue != null) {
+      localHits.increment();
+      return new SimpleValueWrapper(localValue);
+    }
+    localMisses.increment();
+
+    ValueWrapper remoteValue = remote.get(key);
+    if (remoteValue == null || remoteValue.get() == null) {
+      remoteMisses.increment();
+      return null;
+    }
+    remoteHits.increment();
+    local.put(key, remoteValue.get());
+    return remoteValue;
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public <T> T get(Object key, Class<T> type) {
+    ValueWrapper wrapper = get(key);
+    Object value = wrapper != null ? wrapper.get() : null;
+    if (value != null && type != null && !type.isInstance(value)) {
+      throw new IllegalStateException("Cached value is not of required type [" + type.getName() + "]: " + value);
+    }
+    return (T) value;
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public <T> T get(Object key, Callable<T> valueLoader) {
+    ValueWrapper wrapper = get(key);
+    if (wrapper != null) {
+      return (T) wrapper.get();
+    }
+
+    CompletableFuture<Object> flight = new CompletableFuture<>();
+    CompletableFuture<Object> leader = inFlight.putIfAbsent(key, flight);
+    if (leader != null) {
+      coalescedLocal.increment();
+      return (T) await(leader, key, valueLoader);
+    }
+    try {
+      // A load that finished between our miss and putIfAbsent has already filled L1
+      Object value = local.getIfPresent(key);
+      if (value == null) {
+        value = loadOnce(key, valueLoader);
+      }
+      flight.complete(value);
+      return (T) value;
+    } catch (RuntimeException ex) {
+      flight.completeExceptionally(ex);
+      throw ex;
+    } finally {
+      inFlight.remove(key, flight);
+    }
+  }
+
+  private Object await(CompletableFuture<Object> leader, Object key, Callable<?> valueLoader) {
+    try {
+      return leader.get(waitTimeoutNanos, TimeUnit.NANOSECONDS);
+    } catch (TimeoutException ex) {
+      return staleOrLoad(key, valueLoader);
+    } catch (ExecutionException ex) {
+      if (ex.getCause() instanceof RuntimeException cause) {
+        throw cause;
+      }
+      throw new ValueRetrievalException(key, valueLoader, ex.getCause());
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      throw new ValueRetrievalException(key, valueLoader, ex);
+    }
+  }
+
+  // Runs the loader under the cross-replica lease, or waits for the replica holding it
+  private Object loadOnce(Object key, Callable<?> valueLoader) {
+    long deadline = System.nanoTime() + waitTimeoutNanos;
+    boolean waited = false;
+    while (true) {
+      String token = leases.tryAcquire(name, key);
+      if (token != null) {
+        try {
+          // The previous holder usually releases right after storing its result
+          Object stored = waited ? remoteValue(key) : null;
+          return stored != null ? stored : load(key, valueLoader);
+        } finally {
+          leases.release(name, key, token);
+        }
+      }
+
+      Object stored = remoteValue(key);
+      if (stored != null) {
+        return stored;
+      }
+      waited = true;
+      if (System.nanoTime() - deadline >= 0) {
+        return staleOrLoad(key, valueLoader);
+      }
+      try {
+        Thread.sleep(LEASE_POLL_MILLIS);
+      } catch (InterruptedException ex) {
+        Thread.currentThread().interrupt();
+        throw new ValueRetrievalException(key, valueLoader, ex);
+      }
+    }
+  }
+
+  private Object remoteValue(Object key) {
+    ValueWrapper remoteValue = remote.get(key);
+    if (remoteValue == null || remoteValue.get() == null) {
+      return null;
+    }
+    coalescedRemote.increment();
+    local.put(key, remoteValue.get());
+    return remoteValue.get();
+  }
+
+  private Object staleOrLoad(Object key, Callable<?> valueLoader) {
+    Object staleValue = stale != null ? stale.getIfPresent(key) : null;
+    if (staleValue != null) {
+      staleServed.increment();
+      return staleValue;
+    }
+    return load(key, valueLoader);
+  }
+
+  private Object load(Object key, Callable<?> valueLoader) {
+    Object value;
+    try {
+      value = valueLoader.call();
+    } catch (Exception ex) {
+      throw new ValueRetrievalException(key, valueLoader, ex);
+    }
+    loads.increment();
+    put(key, value);
+    return value;
+  }
+
+  @Override
+  public void put(Object key, Object value) {
+    if (value == null) {
+      return;
+    }
+    remote.put(key, value);
+    local.put(key, value);
+  }
+
+  @Override
+  public void evict(Object key) {
+    remote.evict(key);
+    retireLocal(key);
+    invalidationPublisher.publishEvict(name, key);
+  }
+
+  @Override
+  public void clear() {
+    remote.clear();
+    local.invalidateAll();
+    invalidationPublisher.publishClear(name);
+  }
+
+  void evictLocal(Object key) {
+    retireLocal(key);
+  }
+
+  private void retireLocal(Object key) {
+    Object value = local.asMap().remove(key);
+    if (value != null && stale != null) {
+      stale.put(key, value);
+    }
+  }
+
+  void clearLocal() {
+    local.invalidateAll();
+  }
+}
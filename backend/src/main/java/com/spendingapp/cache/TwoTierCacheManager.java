@@ -0,0 +1,107 @@
+package com.spendingapp.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+
+/**
+ * Builds a {@link TwoTierCache} for every cache the delegate (Redis) manager knows about, and
+ * applies invalidations received from other replicas to the local tier.
+ */
+public class TwoTierCacheManager implements CacheManager, MessageListener {
+  private final CacheManager remoteCacheManager;
+  private final CacheInvalidationPublisher invalidationPublisher;
+  private final MeterRegistry meterRegistry;
+  private final long localMaximumSize;
+  private final Duration localExpireAfterWrite;
+  private final CacheLeases leases;
+  private final Duration waitTimeout;
+  private final Duration staleWindow;
+  private final Map<String, TwoTierCache> caches = new ConcurrentHashMap<>();
+
+  public TwoTierCacheManager(
+      CacheManager remoteCacheManager,
+      CacheInvalidationPublisher invalidationPublisher,
+      MeterRegistry meterRegistry,
+      long localMaximumSize,
+      Duration localExpireAfterWrite,
+      CacheLeases leases,
+      Duration waitTimeout,
+      Duration staleWindow) {
+    this.remoteCacheManager = remoteCacheManager;
+    this.invalidationPublisher = invalidationPublisher;
+    this.meterRegistry = meterRegistry;
+    this.localMaximumSize = localMaximumSize;
+    this.localExpireAfterWrite = localExpireAfterWrite;
+    this.leases = leases;
+    this.waitTimeout = waitTimeout;
+    this.staleWindow = staleWindow;
+  }
+
+  @Override
+  public Cache getCache(String name) {
+    return caches.computeIfAbsent(name, this::createCache);
+  }
+
+  @Override
+  public Collection<String> getCacheNames() {
+    return Collections.unmodifiableSet(caches.keySet());
+  }
+
+  private TwoTierCache createCache(String name) {
+    Cache remote = remoteCacheManager.getCache(name);
+    if (remote == null) {
+      throw new IllegalStateException("No remote cache named " + name);
+    }
+    Counter sizeEvictions = Counter.builder("cache.tier.evictions")
+        .tag("cache", name)
+        .tag("tier", "l1")
+        .register(meterRegistry);
+    com.github.benmanes.caffeine.cache.Cache<Object, Object> local = Caffeine.newBuilder()
+        .maximumSize(localMaximumSize)
+        .expireAfterWrite(localExpireAfterWrite)
+        .removalListener((Object key, Object value, RemovalCause cause) -> {
+          if (cause.wasEvicted()) {
+            sizeEvictions.increment();
+          }
+        })
+        .build();
+    com.github.benmanes.caffeine.cache.Cache<Object, Object> stale = staleWindow.isZero()
+        ? null
+        : Caffeine.newBuilder().maximumSize(localMaximumSize).expireAfterWrite(staleWindow).build();
+    return new TwoTierCache(
+        name, local, remote, invalidationPublisher, stale, leases, waitTimeout, meterRegistry);
+  }
+
+  @Override
+  public void onMessage(Message message, byte[] pattern) {
+    String body = new String(message.getBody(), StandardCharsets.UTF_8);
+    int first = body.indexOf(CacheInvalidationPublisher.SEPARATOR);
+    int second = first < 0 ? -1 : body.indexOf(CacheInvalidationPublisher.SEPARATOR, first + 1);
+    if (second < 0 || body.substring(0, first).equals(invalidationPublisher.getInstanceId())) {
+      return;
+    }
+
+    TwoTierCache cache = caches.get(body.substring(first + 1, second));
+    if (cache == null) {
+      return;
+    }
+    String key = body.substring(second + 1);
+    if (key.isEmpty()) {
+      cache.clearLocal();
+    } else {
+      cache.evictLocal(key);
+    }
+  }
+}
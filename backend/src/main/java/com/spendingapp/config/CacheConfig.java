@@ -0,0 +1,101 @@
+package com.spendingapp.config;
+
+import com.spendingapp.cache.CacheCodec;
+import com.spendingapp.cache.CacheInvalidationPublisher;
+import com.spendingapp.cache.CacheLeases;
+import com.spendingapp.cache.CodecRedisSerializer;
+import com.spendingapp.cache.MeteredRedisSerializer;
+import com.spendingapp.cache.TwoTierCacheManager;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.data.redis.cache.RedisCacheConfiguration;
+import org.springframework.data.redis.cache.RedisCacheManager;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.data.redis.serializer.RedisSerializationContext.SerializationPair;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+@Configuration
+public class CacheConfig {
+  @Value("${app.cache.local.maximum-size:10000}")
+  private long localMaximumSize;
+
+  @Value("${app.cache.local.expire-after-write:60s}")
+  private Duration localExpireAfterWrite;
+
+  @Value("${app.cache.single-flight.lease-ttl:5s}")
+  private Duration leaseTtl;
+
+  @Value("${app.cache.single-flight.wait-timeout:2s}")
+  private Duration waitTimeout;
+
+  @Value("${app.cache.single-flight.stale-window:10s}")
+  private Duration staleWindow;
+
+  @Value("${app.cache.redis.default-ttl:1h}")
+  private Duration redisDefaultTtl;
+
+  @Bean
+  public CacheInvalidationPublisher cacheInvalidationPublisher(StringRedisTemplate redisTemplate) {
+    return new CacheInvalidationPublisher(redisTemplate);
+  }
+
+  @Bean
+  public TwoTierCacheManager cacheManager(
+      RedisConnectionFactory connectionFactory,
+      StringRedisTemplate redisTemplate,
+      CacheInvalidationPublisher invalidationPublisher,
+      List<CacheCodec<?>> codecs,
+      Environment environment,
+      MeterRegistry meterRegistry) {
+    Map<String, Duration> ttls = Binder.get(environment)
+        .bind("app.cache.redis.ttl", Bindable.mapOf(String.class, Duration.class))
+        .orElse(Map.of());
+    Map<String, CacheCodec<?>> codecsByCache = new HashMap<>();
+    codecs.forEach(codec -> codecsByCache.put(codec.cacheName(), codec));
+
+    RedisCacheManager.RedisCacheManagerBuilder builder = RedisCacheManager.builder(connectionFactory)
+        .cacheDefaults(RedisCacheConfiguration.defaultCacheConfig().entryTtl(redisDefaultTtl));
+    Set<String> configured = new TreeSet<>(ttls.keySet());
+    configured.addAll(codecsByCache.keySet());
+    for (String name : configured) {
+      CacheCodec<?> codec = codecsByCache.get(name);
+      RedisSerializer<Object> values = codec != null
+          ? new CodecRedisSerializer<>(codec, meterRegistry)
+          : RedisSerializer.java(getClass().getClassLoader());
+      builder.withCacheConfiguration(name, RedisCacheConfiguration.defaultCacheConfig()
+          .entryTtl(ttls.getOrDefault(name, redisDefaultTtl))
+          // Cached methods never return null, and a codec has no encoding for it
+          .disableCachingNullValues()
+          .serializeValuesWith(SerializationPair.fromSerializer(
+              new MeteredRedisSerializer(name, values, meterRegistry))));
+    }
+    RedisCacheManager redisCacheManager = builder.build();
+    redisCacheManager.afterPropertiesSet();
+    return new TwoTierCacheManager(
+        redisCacheManager, invalidationPublisher, meterRegistry, localMaximumSize, localExpireAfterWrite,
+        new CacheLeases(redisTemplate, leaseTtl), waitTimeout, staleWindow);
+  }
+
+  @Bean
+  public RedisMessageListenerContainer cacheInvalidationListenerContainer(
+      RedisConnectionFactory connectionFactory, TwoTierCacheManager cacheManager) {
+    RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+    container.setConnectionFactory(connectionFactory);
+    container.addMessageListener(cacheManager, new ChannelTopic(CacheInvalidationPublisher.CHANNEL));
+    return container;
+  }
+}
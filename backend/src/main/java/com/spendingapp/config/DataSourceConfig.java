@@ -0,0 +1,86 @@
+package com.spendingapp.config;
+
+import com.spendingapp.datasource.ReadYourWrites;
+import com.spendingapp.datasource.ReplicaDataSource;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import javax.sql.DataSource;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.scheduling.annotation.Scheduled;
+
+/**
+ * Sends {@code @Transactional(readOnly = true)} work to read replicas when
+ * {@code app.datasource.replicas} lists any; otherwise Boot's single datasource is left as is.
+ *
+ * <p>The lazy proxy only takes a physical connection once the first statement runs, by which
+ * point the transaction has marked it read-only, and hands read-only connections to
+ * {@link ReplicaDataSource}. Each replica gets its own pool with the primary's Hikari settings.
+ */
+@Configuration
+@ConditionalOnExpression("!'${app.datasource.replicas:}'.isBlank()")
+public class DataSourceConfig {
+  @Value("${app.datasource.replicas}")
+  private String replicaUrls;
+
+  @Value("${app.datasource.replica-max-lag:5s}")
+  private Duration replicaMaxLag;
+
+  private final List<HikariDataSource> replicaPools = new ArrayList<>();
+  private ReplicaDataSource replicaDataSource;
+
+  @Bean
+  @ConfigurationProperties("spring.datasource.hikari")
+  public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+    HikariDataSource primary = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    primary.setPoolName("primary");
+    return primary;
+  }
+
+  @Bean
+  @Primary
+  public DataSource dataSource(
+      HikariDataSource primaryDataSource, ReadYourWrites readYourWrites, MeterRegistry meterRegistry) {
+    for (String url : Arrays.stream(replicaUrls.split(",")).map(String::trim).filter(u -> !u.isEmpty()).toList()) {
+      // Also copies the metrics tracker Boot installed on the primary pool
+      HikariConfig config = new HikariConfig();
+      primaryDataSource.copyStateTo(config);
+      config.setJdbcUrl(url);
+      config.setPoolName("replica-" + replicaPools.size());
+      config.setReadOnly(true);
+      replicaPools.add(new HikariDataSource(config));
+    }
+    replicaDataSource = new ReplicaDataSource(
+        primaryDataSource, List.<DataSource>copyOf(replicaPools), readYourWrites::isCurrentUserPinned, replicaMaxLag, meterRegistry);
+
+    LazyConnectionDataSourceProxy proxy = new LazyConnectionDataSourceProxy(primaryDataSource);
+    proxy.setReadOnlyDataSource(replicaDataSource);
+    return proxy;
+  }
+
+  @PreDestroy
+  public void closeReplicaPools() {
+    replicaPools.forEach(HikariDataSource::close);
+  }
+
+  @Scheduled(
+      fixedDelayString = "${app.datasource.replica-health-check-interval-ms:5000}",
+      initialDelayString = "${app.datasource.replica-health-check-interval-ms:5000}")
+  public void checkReplicaHealth() {
+    if (replicaDataSource != null) {
+      replicaDataSource.checkHealth();
+    }
+  }
+}
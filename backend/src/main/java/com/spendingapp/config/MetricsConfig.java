@@ -0,0 +1,34 @@
+package com.spendingapp.config;
+
+import com.spendingapp.metrics.RequestMetricsInterceptor;
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+public class MetricsConfig implements WebMvcConfigurer {
+  private final MeterRegistry meterRegistry;
+
+  @Value("${app.metrics.slow-request-threshold:500ms}")
+  private Duration slowRequestThreshold;
+
+  public MetricsConfig(MeterRegistry meterRegistry) {
+    this.meterRegistry = meterRegistry;
+  }
+
+  // Enables @Timed on service methods
+  @Bean
+  public TimedAspect timedAspect() {
+    return new TimedAspect(meterRegistry);
+  }
+
+  @Override
+  public void addInterceptors(InterceptorRegistry registry) {
+    registry.addInterceptor(new RequestMetricsInterceptor(meterRegistry, slowRequestThreshold));
+  }
+}
@@ -0,0 +1,36 @@
+package com.spendingapp.controller;
+
+import com.spendingapp.live.LiveUpdates;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+@RestController
+public class LiveUpdatesController {
+  private final LiveUpdates liveUpdates;
+
+  public LiveUpdatesController(LiveUpdates liveUpdates) {
+    this.liveUpdates = liveUpdates;
+  }
+
+  @GetMapping(value = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+  public SseEmitter events(HttpServletResponse response) {
+    String uid = getCurrentUserUid();
+    // Tells nginx to pass events through as they are written instead of buffering them
+    response.setHeader("X-Accel-Buffering", "no");
+    response.setHeader("Cache-Control", "no-store");
+    return liveUpdates.subscribe(uid);
+  }
+
+  private String getCurrentUserUid() {
+    Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+    if (auth == null || auth.getName() == null) {
+      throw new IllegalStateException("User not authenticated");
+    }
+    return auth.getName();
+  }
+}
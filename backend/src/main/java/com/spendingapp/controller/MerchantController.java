@@ -0,0 +1,47 @@
+package com.spendingapp.controller;
+
+import com.spendingapp.service.MerchantSuggestions;
+import java.util.List;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/merchants")
+public class MerchantController {
+  private static final int MAX_PREFIX_LENGTH = 255;
+  private static final int MAX_SUGGESTIONS = 50;
+
+  private final MerchantSuggestions merchantSuggestions;
+
+  public MerchantController(MerchantSuggestions merchantSuggestions) {
+    this.merchantSuggestions = merchantSuggestions;
+  }
+
+  @GetMapping("/suggest")
+  public List<String> suggest(
+      @RequestParam(defaultValue = "") String prefix,
+      @RequestParam(defaultValue = "10") int limit) {
+    String uid = getCurrentUserUid();
+
+    if (prefix.length() > MAX_PREFIX_LENGTH) {
+      throw new IllegalArgumentException("Prefix must be at most " + MAX_PREFIX_LENGTH + " characters");
+    }
+    if (limit < 1 || limit > MAX_SUGGESTIONS) {
+      throw new IllegalArgumentException("Limit must be between 1 and " + MAX_SUGGESTIONS);
+    }
+
+    return merchantSuggestions.suggest(uid, prefix.stripLeading(), limit);
+  }
+
+  private String getCurrentUserUid() {
+    Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+    if (auth == null || auth.getName() == null) {
+      throw new IllegalStateException("User not authenticated");
+    }
+    return auth.getName();
+  }
+}
@@ -1,27 +1,74 @@
 package com.spendingapp.controller;
 
 import com.spendingapp.dto.CreateSpendingRequest;
+import com.spendingapp.dto.DashboardResponse;
+import com.spendingapp.dto.ImportResult;
 import com.spendingapp.dto.InsightsResponse;
-import com.spendingapp.dto.SpendingDto;
+import com.spendingapp.dto.SpendingFilter;
+import com.spendingapp.dto.SpendingPage;
+import com.spendingapp.dto.TrendsResponse;
+import com.spendingapp.service.DashboardService;
+import com.spendingapp.service.DataVersionService;
+import com.spendingapp.service.SpendingExportService;
+import com.spendingapp.service.SpendingImportService;
 import com.spendingapp.service.SpendingService;
-import java.math.BigDecimal;
+import com.spendingapp.service.SpendingValidator;
+import com.spendingapp.service.SpendingWriteBuffer;
+import com.spendingapp.service.TrendSnapshotService;
+import com.spendingapp.service.ValidatedSpending;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.OutputStream;
 import java.time.LocalDate;
-import java.util.List;
+import java.util.Arrays;
+import java.util.Locale;
 import java.util.Map;
+import java.util.Objects;
+import java.util.zip.GZIPOutputStream;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
 @RestController
 public class SpendingController {
+  private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+
   private final SpendingService spendingService;
+  private final DashboardService dashboardService;
+  private final SpendingImportService importService;
+  private final SpendingExportService exportService;
+  private final SpendingWriteBuffer writeBuffer;
+  private final DataVersionService dataVersions;
+  private final TrendSnapshotService trendSnapshots;
 
-  public SpendingController(SpendingService spendingService) {
+  public SpendingController(
+      SpendingService spendingService,
+      DashboardService dashboardService,
+      SpendingImportService importService,
+      SpendingExportService exportService,
+      SpendingWriteBuffer writeBuffer,
+      DataVersionService dataVersions,
+      TrendSnapshotService trendSnapshots) {
     this.spendingService = spendingService;
+    this.dashboardService = dashboardService;
+    this.importService = importService;
+    this.exportService = exportService;
+    this.writeBuffer = writeBuffer;
+    this.dataVersions = dataVersions;
+    this.trendSnapshots = trendSnapshots;
   }
 
   @GetMapping("/health")
@@ -30,58 +77,177 @@ public class SpendingController {
   }
 
   @GetMapping("/spending")
-  public List<SpendingDto> getSpending() {
+  public ResponseEntity<SpendingPage> getSpending(
+      @RequestParam(required = false) String cursor,
+      @RequestParam(defaultValue = "" + SpendingService.DEFAULT_PAGE_SIZE) int limit,
+      @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+      @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+      @RequestParam(required = false) String category,
+      @RequestParam(required = false) String merchant,
+      WebRequest webRequest) {
     String uid = getCurrentUserUid();
-    return spendingService.getTransactions(uid);
+
+    if (limit < 1 || limit > SpendingService.MAX_PAGE_SIZE) {
+      throw new IllegalArgumentException("Limit must be between 1 and " + SpendingService.MAX_PAGE_SIZE);
+    }
+    if (from != null && to != null && from.isAfter(to)) {
+      throw new IllegalArgumentException("From date must not be after to date");
+    }
+
+    SpendingFilter filter = new SpendingFilter(from, to, trimToNull(category), trimToNull(merchant));
+    String etag = dataEtag(uid, "spending", filter, cursor, limit);
+    if (etag != null && webRequest.checkNotModified(etag)) {
+      return null;
+    }
+    return revalidated(etag).body(spendingService.getTransactions(uid, filter, cursor, limit));
   }
 
   @PostMapping("/spending")
-  public Map<String, Object> createSpending(@RequestBody CreateSpendingRequest request) {
+  public ResponseEntity<Map<String, Object>> createSpending(@RequestBody CreateSpendingRequest request) {
     String uid = getCurrentUserUid();
 
-    if (request.getAmount() == null || request.getAmount().isBlank()) {
-      throw new IllegalArgumentException("Amount is required");
+    ValidatedSpending spending = SpendingValidator.validate(request);
+    if (writeBuffer.isEnabled()) {
+      boolean committed = writeBuffer.submit(uid, spending);
+      return committed
+          ? ResponseEntity.ok(Map.of("success", true))
+          : ResponseEntity.accepted().body(Map.of("success", true, "pending", true));
+    }
+
+    spendingService.createTransaction(
+        uid,
+        spending.amount(),
+        spending.category(),
+        spending.merchant(),
+        spending.transactionDate()
+    );
+
+    return ResponseEntity.ok(Map.of("success", true));
+  }
+
+  // The body is read straight from the request stream; Spring never buffers it.
+  @PostMapping(value = "/spending/import", consumes = {"text/csv", "application/x-ndjson"})
+  public ImportResult importSpending(HttpServletRequest request) throws IOException {
+    String uid = getCurrentUserUid();
+    SpendingImportService.Format format = NDJSON.isCompatibleWith(MediaType.parseMediaType(request.getContentType()))
+        ? SpendingImportService.Format.NDJSON
+        : SpendingImportService.Format.CSV;
+    return importService.importStatement(uid, request.getInputStream(), format);
+  }
+
+  // Rows go from the database cursor to the response as they are read; with no Content-Length
+  // the response is chunked, and gzipped on the fly when the client accepts it.
+  @GetMapping("/spending/export")
+  public void exportSpending(
+      @RequestParam(defaultValue = "csv") String format,
+      @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+      @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+      HttpServletRequest request,
+      HttpServletResponse response) throws IOException {
+    String uid = getCurrentUserUid();
+
+    SpendingExportService.Format exportFormat = switch (format.toLowerCase(Locale.ROOT)) {
+      case "csv" -> SpendingExportService.Format.CSV;
+      case "ndjson" -> SpendingExportService.Format.NDJSON;
+      default -> throw new IllegalArgumentException("Format must be csv or ndjson");
+    };
+    if (from != null && to != null && from.isAfter(to)) {
+      throw new IllegalArgumentException("From date must not be after to date");
+    }
+
+    boolean gzip = acceptsGzip(request);
+    response.setContentType(exportFormat == SpendingExportService.Format.NDJSON
+        ? NDJSON.toString()
+        : "text/csv;charset=UTF-8");
+    response.setHeader(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+        .filename(exportFormat == SpendingExportService.Format.NDJSON ? "spending.ndjson" : "spending.csv")
+        .build()
+        .toString());
+    response.setHeader(HttpHeaders.CACHE_CONTROL, CacheControl.noStore().getHeaderValue());
+    response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+    if (gzip) {
+      response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
     }
-    if (request.getCategory() == null || request.getCategory().isBlank()) {
-      throw new IllegalArgumentException("Category is required");
+
+    OutputStream body = response.getOutputStream();
+    if (gzip) {
+      try (GZIPOutputStream gzipBody = new GZIPOutputStream(body, 8192)) {
+        exportService.export(uid, from, to, exportFormat, gzipBody);
+      }
+    } else {
+      exportService.export(uid, from, to, exportFormat, body);
     }
-    if (request.getMerchant() == null || request.getMerchant().isBlank()) {
-      throw new IllegalArgumentException("Merchant is required");
+  }
+
+  @GetMapping("/insights")
+  public ResponseEntity<InsightsResponse> getInsights(
+      @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+      @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+      WebRequest webRequest) {
+    String uid = getCurrentUserUid();
+
+    if (from != null && to != null && from.isAfter(to)) {
+      throw new IllegalArgumentException("From date must not be after to date");
     }
-    if (request.getTransactionDate() == null || request.getTransactionDate().isBlank()) {
-      throw new IllegalArgumentException("Transaction date is required");
+
+    String etag = dataEtag(uid, "insights", from, to);
+    if (etag != null && webRequest.checkNotModified(etag)) {
+      return null;
     }
+    return revalidated(etag).body(spendingService.getInsights(uid, from, to));
+  }
 
-    String amountRaw = request.getAmount().trim();
-    if (!amountRaw.matches("^\\d+(\\.\\d{1,2})?$")) {
-      throw new IllegalArgumentException("Amount must have up to 2 decimal places");
+  // Precomputed nightly, so not tied to the data version ETags: a write doesn't change it
+  @GetMapping("/insights/trends")
+  public TrendsResponse getTrends() {
+    return trendSnapshots.getTrends(getCurrentUserUid());
+  }
+
+  @GetMapping("/dashboard")
+  public ResponseEntity<DashboardResponse> getDashboard(
+      @RequestParam(defaultValue = "" + SpendingService.DEFAULT_PAGE_SIZE) int limit,
+      WebRequest webRequest) {
+    String uid = getCurrentUserUid();
+
+    if (limit < 1 || limit > SpendingService.MAX_PAGE_SIZE) {
+      throw new IllegalArgumentException("Limit must be between 1 and " + SpendingService.MAX_PAGE_SIZE);
     }
 
-    BigDecimal amount = new BigDecimal(amountRaw);
-    if (amount.compareTo(BigDecimal.ZERO) <= 0) {
-      throw new IllegalArgumentException("Amount must be greater than 0");
+    String etag = dataEtag(uid, "dashboard", limit);
+    if (etag != null && webRequest.checkNotModified(etag)) {
+      return null;
     }
+    return revalidated(etag).body(dashboardService.getDashboard(uid, limit));
+  }
 
-    LocalDate transactionDate = LocalDate.parse(request.getTransactionDate());
-    if (transactionDate.isAfter(LocalDate.now())) {
-      throw new IllegalArgumentException("Transaction date cannot be in the future");
+  /**
+   * Strong ETag for a read of the user's data: the user's data version plus a hash of what was
+   * asked for. Null when the version is unavailable, in which case no ETag is sent.
+   */
+  private String dataEtag(String uid, String resource, Object... query) {
+    Long version = dataVersions.currentVersion(uid);
+    if (version == null) {
+      return null;
     }
+    return version + "-" + Integer.toHexString(Objects.hash(resource, Arrays.hashCode(query)));
+  }
 
-    spendingService.createTransaction(
-        uid,
-        amount,
-        request.getCategory().trim(),
-        request.getMerchant().trim(),
-        transactionDate
-    );
+  // private + no-cache lets the browser keep the body but revalidate it with If-None-Match every time
+  private static ResponseEntity.BodyBuilder revalidated(String etag) {
+    ResponseEntity.BodyBuilder builder = ResponseEntity.ok().cacheControl(CacheControl.noCache().cachePrivate());
+    return etag != null ? builder.eTag(etag) : builder;
+  }
 
-    return Map.of("success", true);
+  private static boolean acceptsGzip(HttpServletRequest request) {
+    String acceptEncoding = request.getHeader(HttpHeaders.ACCEPT_ENCODING);
+    return acceptEncoding != null && acceptEncoding.toLowerCase(Locale.ROOT).contains("gzip");
   }
 
-  @GetMapping("/insights")
-  public InsightsResponse getInsights() {
-    String uid = getCurrentUserUid();
-    return spendingService.getInsights(uid);
+  private static String trimToNull(String value) {
+    if (value == null || value.isBlank()) {
+      return null;
+    }
+    return value.trim();
   }
 
   private String getCurrentUserUid() {
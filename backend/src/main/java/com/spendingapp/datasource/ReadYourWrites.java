@@ -0,0 +1,105 @@
+package com.spendingapp.datasource;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.time.Duration;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseCookie;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+/**
+ * Pins a user's reads to the primary for a short window after they write, so a replica that has
+ * not replayed the write yet can't serve them a page without it.
+ *
+ * <p>The replica that took the write remembers the pin in process. The writing response also
+ * sets a {@value #COOKIE} cookie holding the pin's expiry, which the browser sends with the
+ * user's next requests whichever replica they land on. Checking a pin is therefore a map lookup
+ * and a header read, never a network call. The cookie only ever routes its holder's own reads to
+ * the primary, so it is trusted as long as its expiry lies within one window of now.
+ *
+ * <p>Does nothing unless read replicas are configured.
+ */
+@Component
+public class ReadYourWrites {
+  static final String COOKIE = "primary-pin";
+
+  private final boolean enabled;
+  private final Duration window;
+  private final Cache<String, Boolean> localPins;
+
+  public ReadYourWrites(
+      @Value("${app.datasource.replicas:}") String replicas,
+      @Value("${app.datasource.read-your-writes-window:5s}") Duration window) {
+    this.enabled = !replicas.isBlank();
+    this.window = window;
+    this.localPins = Caffeine.newBuilder().expireAfterWrite(window).build();
+  }
+
+  /**
+   * Pins the user on this replica and, when called on a request thread whose response has not
+   * been sent yet, on the client too.
+   */
+  public void pin(String firebaseUid) {
+    if (!enabled) {
+      return;
+    }
+    localPins.put(firebaseUid, Boolean.TRUE);
+    if (currentRequestAttributes() instanceof ServletRequestAttributes attributes) {
+      HttpServletResponse response = attributes.getResponse();
+      if (response != null && !response.isCommitted()) {
+        ResponseCookie cookie = ResponseCookie.from(COOKIE, Long.toString(System.currentTimeMillis() + window.toMillis()))
+            .path("/")
+            .maxAge(window)
+            .httpOnly(true)
+            .sameSite("Strict")
+            .build();
+        response.addHeader(HttpHeaders.SET_COOKIE, cookie.toString());
+      }
+    }
+  }
+
+  /** Whether the user making the current request wrote within the window. */
+  public boolean isCurrentUserPinned() {
+    Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+    if (!enabled || auth == null || auth.getName() == null) {
+      return false;
+    }
+    if (localPins.getIfPresent(auth.getName()) != null) {
+      return true;
+    }
+    return currentRequestAttributes() instanceof ServletRequestAttributes attributes
+        && hasLivePinCookie(attributes.getRequest());
+  }
+
+  private boolean hasLivePinCookie(HttpServletRequest request) {
+    Cookie[] cookies = request.getCookies();
+    if (cookies == null) {
+      return false;
+    }
+    long now = System.currentTimeMillis();
+    for (Cookie cookie : cookies) {
+      if (COOKIE.equals(cookie.getName())) {
+        try {
+          long expiresAt = Long.parseLong(cookie.getValue());
+          return expiresAt > now && expiresAt <= now + window.toMillis();
+        } catch (NumberFormatException ex) {
+          return false;
+        }
+      }
+    }
+    return false;
+  }
+
+  private static RequestAttributes currentRequestAttributes() {
+    return RequestContextHolder.getRequestAttributes();
+  }
+}
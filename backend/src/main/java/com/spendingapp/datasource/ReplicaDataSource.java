@@ -0,0 +1,136 @@
+package com.spendingapp.datasource;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+import javax.sql.DataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+
+/**
+ * Connections for read-only transactions. Replicas are taken in round-robin order, skipping any
+ * that failed their last health check or that lag the primary by more than {@code maxLag}; when
+ * none is usable, or the current user was just pinned by {@link ReadYourWrites}, the connection
+ * comes from the primary instead.
+ */
+public class ReplicaDataSource extends AbstractDataSource {
+  private static final Logger logger = LoggerFactory.getLogger(ReplicaDataSource.class);
+
+  // Zero when the replica has replayed everything it received, so an idle primary doesn't read as lag
+  private static final String LAG_QUERY = "select case when not pg_is_in_recovery() "
+      + "or pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() then 0 "
+      + "else coalesce(extract(epoch from now() - pg_last_xact_replay_timestamp()), 0) end";
+
+  private final DataSource primary;
+  private final List<Replica> replicas;
+  private final BooleanSupplier preferPrimary;
+  private final Duration maxLag;
+  private final AtomicInteger next = new AtomicInteger();
+
+  private final Counter replicaReads;
+  private final Counter pinnedReads;
+  private final Counter fallbackReads;
+
+  public ReplicaDataSource(
+      DataSource primary,
+      List<DataSource> replicas,
+      BooleanSupplier preferPrimary,
+      Duration maxLag,
+      MeterRegistry meterRegistry) {
+    this.primary = primary;
+    this.replicas = replicas.stream().map(Replica::new).toList();
+    this.preferPrimary = preferPrimary;
+    this.maxLag = maxLag;
+    this.replicaReads = routeCounter(meterRegistry, "replica");
+    this.pinnedReads = routeCounter(meterRegistry, "primary-pinned");
+    this.fallbackReads = routeCounter(meterRegistry, "primary-fallback");
+    Gauge.builder("db.replicas.healthy", this.replicas, list -> list.stream().filter(r -> r.healthy).count())
+        .description("Read replicas currently eligible for read-only transactions")
+        .register(meterRegistry);
+  }
+
+  private static Counter routeCounter(MeterRegistry meterRegistry, String target) {
+    return Counter.builder("db.read.route").tag("target", target).register(meterRegistry);
+  }
+
+  @Override
+  public Connection getConnection() throws SQLException {
+    return route(DataSource::getConnection);
+  }
+
+  @Override
+  public Connection getConnection(String username, String password) throws SQLException {
+    return route(dataSource -> dataSource.getConnection(username, password));
+  }
+
+  private Connection route(ConnectionOpener opener) throws SQLException {
+    if (preferPrimary.getAsBoolean()) {
+      pinnedReads.increment();
+      return opener.open(primary);
+    }
+    int start = Math.floorMod(next.getAndIncrement(), replicas.size());
+    for (int i = 0; i < replicas.size(); i++) {
+      int index = (start + i) % replicas.size();
+      Replica replica = replicas.get(index);
+      if (!replica.healthy) {
+        continue;
+      }
+      try {
+        Connection connection = opener.open(replica.dataSource);
+        replicaReads.increment();
+        return connection;
+      } catch (SQLException ex) {
+        // Out until the next health check brings it back
+        replica.healthy = false;
+        logger.warn("Read replica {} unavailable, skipping it: {}", index, ex.getMessage());
+      }
+    }
+    fallbackReads.increment();
+    return opener.open(primary);
+  }
+
+  /** Probes every replica; called on a fixed delay by {@code DataSourceConfig}. */
+  public void checkHealth() {
+    for (int index = 0; index < replicas.size(); index++) {
+      Replica replica = replicas.get(index);
+      boolean healthy;
+      try (Connection connection = replica.dataSource.getConnection();
+          Statement statement = connection.createStatement();
+          ResultSet lag = statement.executeQuery(LAG_QUERY)) {
+        lag.next();
+        double lagSeconds = lag.getDouble(1);
+        healthy = lagSeconds * 1000 <= maxLag.toMillis();
+        if (!healthy) {
+          logger.warn("Read replica {} is {}s behind the primary, routing reads elsewhere", index, lagSeconds);
+        }
+      } catch (SQLException ex) {
+        healthy = false;
+        logger.warn("Read replica {} health check failed: {}", index, ex.getMessage());
+      }
+      replica.healthy = healthy;
+    }
+  }
+
+  @FunctionalInterface
+  private interface ConnectionOpener {
+    Connection open(DataSource dataSource) throws SQLException;
+  }
+
+  private static final class Replica {
+    private final DataSource dataSource;
+    private volatile boolean healthy = true;
+
+    Replica(DataSource dataSource) {
+      this.dataSource = dataSource;
+    }
+  }
+}
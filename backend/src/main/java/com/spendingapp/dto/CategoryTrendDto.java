@@ -0,0 +1,6 @@
+package com.spendingapp.dto;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+public record CategoryTrendDto(String category, List<BigDecimal> totals, List<BigDecimal> rollingAverages) {}
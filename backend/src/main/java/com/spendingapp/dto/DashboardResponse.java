@@ -0,0 +1,5 @@
+package com.spendingapp.dto;
+
+import java.io.Serializable;
+
+public record DashboardResponse(SpendingPage transactions, InsightsResponse insights) implements Serializable {}
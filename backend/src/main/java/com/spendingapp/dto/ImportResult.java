@@ -0,0 +1,10 @@
+package com.spendingapp.dto;
+
+import java.util.List;
+
+public record ImportResult(
+    long imported,
+    long rejected,
+    List<ImportRowError> errors,
+    long elapsedMillis,
+    double rowsPerSecond) {}
@@ -0,0 +1,3 @@
+package com.spendingapp.dto;
+
+public record ImportRowError(long line, String message) {}
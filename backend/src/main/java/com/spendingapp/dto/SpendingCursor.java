@@ -0,0 +1,36 @@
+package com.spendingapp.dto;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Opaque keyset position in a user's history, ordered by (transactionDate desc, id desc).
+ */
+public record SpendingCursor(LocalDate transactionDate, long id) {
+  public String encode() {
+    String raw = transactionDate + ":" + id;
+    return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+  }
+
+  public static SpendingCursor decode(String cursor) {
+    try {
+      String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+      int separator = raw.indexOf(':');
+      if (separator < 0) {
+        throw new IllegalArgumentException("Invalid cursor");
+      }
+      return new SpendingCursor(
+          LocalDate.parse(raw.substring(0, separator)),
+          Long.parseLong(raw.substring(separator + 1))
+      );
+    } catch (DateTimeParseException | NumberFormatException ex) {
+      throw new IllegalArgumentException("Invalid cursor", ex);
+    }
+  }
+
+  public static SpendingCursor of(SpendingDto dto) {
+    return new SpendingCursor(dto.transactionDate(), dto.id());
+  }
+}
@@ -0,0 +1,24 @@
+package com.spendingapp.dto;
+
+import java.time.LocalDate;
+
+public record SpendingFilter(LocalDate from, LocalDate to, String category, String merchant) {
+  // Bounds for an open-ended date range. Passing real dates rather than "is null or ..."
+  // keeps the range predicate usable for partition pruning.
+  private static final LocalDate EARLIEST_DATE = LocalDate.of(1, 1, 1);
+  private static final LocalDate LATEST_DATE = LocalDate.of(9999, 12, 31);
+
+  public static SpendingFilter none() {
+    return new SpendingFilter(null, null, null, null);
+  }
+
+  /** {@code from}, or the earliest date when the range has no lower bound. */
+  public static LocalDate orEarliest(LocalDate from) {
+    return from != null ? from : EARLIEST_DATE;
+  }
+
+  /** {@code to}, or the latest date when the range has no upper bound. */
+  public static LocalDate orLatest(LocalDate to) {
+    return to != null ? to : LATEST_DATE;
+  }
+}
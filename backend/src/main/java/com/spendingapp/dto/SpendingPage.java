@@ -0,0 +1,6 @@
+package com.spendingapp.dto;
+
+import java.io.Serializable;
+import java.util.List;
+
+public record SpendingPage(List<SpendingDto> items, String nextCursor) implements Serializable {}
@@ -0,0 +1,9 @@
+package com.spendingapp.dto;
+
+import java.math.BigDecimal;
+
+/**
+ * Pushed to a user's open event streams after a transaction is created: the new row, its
+ * category's new all-time total and the new grand total, enough to patch the dashboard in place.
+ */
+public record SpendingUpdate(SpendingDto transaction, InsightDto category, BigDecimal totalSpent, int transactionCount) {}
@@ -0,0 +1,6 @@
+package com.spendingapp.dto;
+
+import java.math.BigDecimal;
+
+/** A category's spending in the snapshot's last month against its average over the three before. */
+public record TrendMoverDto(String category, BigDecimal total, BigDecimal previousAverage, BigDecimal change) {}
@@ -0,0 +1,17 @@
+package com.spendingapp.dto;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * A user's latest monthly-trends snapshot. {@code months} are the first days of the reported
+ * months, oldest first, ending with {@code asOfMonth}; each category's lists line up with them.
+ * Empty (null dates, no categories) until the first snapshot run has covered the user.
+ */
+public record TrendsResponse(
+    LocalDate asOfMonth,
+    LocalDateTime computedAt,
+    List<LocalDate> months,
+    List<CategoryTrendDto> categories,
+    List<TrendMoverDto> biggestMovers) {}
@@ -0,0 +1,275 @@
+package com.spendingapp.live;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.spendingapp.dto.SpendingUpdate;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * Per-user Server-Sent Event streams. Events are published on a Redis channel as
+ * {@code uid|event|json}, so a write on any replica reaches the user's streams on every replica.
+ *
+ * <p>Streams are async servlet responses: an idle stream holds no thread, only its socket. Sends
+ * run on the application task executor so one slow client can't stall delivery to the others.
+ * Each stream drains its own queue one event at a time, so events reach a client in the order
+ * they were delivered here; a client that falls {@code max-pending-events} behind is closed and
+ * reloads when it reconnects.
+ */
+@Component
+public class LiveUpdates implements MessageListener {
+  public static final String CHANNEL = "live-updates";
+  static final char SEPARATOR = '|';
+
+  /** A transaction was created; data is a {@link SpendingUpdate}. */
+  public static final String SPENDING_EVENT = "spending";
+
+  /** Many rows changed at once (import, write-behind batch); the client should reload. */
+  public static final String RELOAD_EVENT = "reload";
+
+  private static final Logger logger = LoggerFactory.getLogger(LiveUpdates.class);
+  private static final String LISTENING_KEY_PREFIX = "live-listening:";
+
+  private final Map<String, Set<Stream>> streams = new ConcurrentHashMap<>();
+  private final StringRedisTemplate redisTemplate;
+  private final RedisMessageListenerContainer listenerContainer;
+  private final TaskExecutor sendExecutor;
+  private final ObjectMapper objectMapper;
+  private final Duration streamTimeout;
+  private final int maxStreamsPerUser;
+  private final int maxPendingEvents;
+  private final Duration listeningTtl;
+  private final Counter eventsSent;
+
+  public LiveUpdates(
+      StringRedisTemplate redisTemplate,
+      RedisMessageListenerContainer listenerContainer,
+      @Qualifier("applicationTaskExecutor") TaskExecutor sendExecutor,
+      ObjectMapper objectMapper,
+      @Value("${app.live-updates.stream-timeout:30m}") Duration streamTimeout,
+      @Value("${app.live-updates.max-streams-per-user:5}") int maxStreamsPerUser,
+      @Value("${app.live-updates.max-pending-events:100}") int maxPendingEvents,
+      @Value("${app.live-updates.heartbeat-interval-ms:25000}") long heartbeatIntervalMillis,
+      MeterRegistry meterRegistry) {
+    this.redisTemplate = redisTemplate;
+    this.listenerContainer = listenerContainer;
+    this.sendExecutor = sendExecutor;
+    this.objectMapper = objectMapper;
+    this.streamTimeout = streamTimeout;
+    this.maxStreamsPerUser = maxStreamsPerUser;
+    this.maxPendingEvents = maxPendingEvents;
+    // Outlives one missed heartbeat, so a user with open streams never reads as not listening
+    this.listeningTtl = Duration.ofMillis(heartbeatIntervalMillis * 2 + 5000);
+    this.eventsSent = Counter.builder("live.events.sent").register(meterRegistry);
+    Gauge.builder("live.streams.open", streams, map -> map.values().stream().mapToInt(Set::size).sum())
+        .description("Open event streams on this replica")
+        .register(meterRegistry);
+  }
+
+  @PostConstruct
+  void listen() {
+    listenerContainer.addMessageListener(this, new ChannelTopic(CHANNEL));
+  }
+
+  public SseEmitter subscribe(String firebaseUid) {
+    SseEmitter emitter = new SseEmitter(streamTimeout.toMillis());
+    Stream stream = new Stream(emitter, maxPendingEvents);
+    streams.compute(firebaseUid, (uid, userStreams) -> {
+      Set<Stream> updated = userStreams != null ? userStreams : ConcurrentHashMap.newKeySet();
+      if (updated.size() >= maxStreamsPerUser) {
+        throw new ResponseStatusException(HttpStatus.TOO_MANY_REQUESTS, "Too many open event streams");
+      }
+      updated.add(stream);
+      return updated;
+    });
+    emitter.onCompletion(() -> remove(firebaseUid, stream));
+    emitter.onTimeout(() -> remove(firebaseUid, stream));
+    emitter.onError(ex -> remove(firebaseUid, stream));
+    markListening(firebaseUid);
+    // Sends the response headers now rather than with the first event
+    send(firebaseUid, stream, SseEmitter.event().comment("connected"));
+    return emitter;
+  }
+
+  /**
+   * Whether the user has an open stream on any replica, so writers can skip building updates
+   * nobody will receive. Errs towards true: a stream closed within the last couple of heartbeats
+   * still counts, and so does everyone while Redis is unreachable.
+   */
+  public boolean hasListeners(String firebaseUid) {
+    if (streams.containsKey(firebaseUid)) {
+      return true;
+    }
+    try {
+      return Boolean.TRUE.equals(redisTemplate.hasKey(LISTENING_KEY_PREFIX + firebaseUid));
+    } catch (RuntimeException ex) {
+      return true;
+    }
+  }
+
+  // Other replicas learn about this replica's streams from a key that each heartbeat renews
+  private void markListening(String firebaseUid) {
+    try {
+      redisTemplate.opsForValue().set(LISTENING_KEY_PREFIX + firebaseUid, "1", listeningTtl);
+    } catch (RuntimeException ex) {
+      logger.warn("Could not mark {} as listening in Redis: {}", firebaseUid, ex.getMessage());
+    }
+  }
+
+  /** Publishes once the current transaction commits, so clients never see a rolled-back row. */
+  public void publishAfterCommit(String firebaseUid, SpendingUpdate update) {
+    String data;
+    try {
+      data = objectMapper.writeValueAsString(update);
+    } catch (JsonProcessingException ex) {
+      throw new IllegalStateException("Could not serialize spending update", ex);
+    }
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      publish(firebaseUid, SPENDING_EVENT, data);
+      return;
+    }
+    TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+      @Override
+      public void afterCommit() {
+        publish(firebaseUid, SPENDING_EVENT, data);
+      }
+    });
+  }
+
+  public void publishReload(String firebaseUid) {
+    publish(firebaseUid, RELOAD_EVENT, "{}");
+  }
+
+  private void publish(String firebaseUid, String event, String data) {
+    try {
+      redisTemplate.convertAndSend(CHANNEL, firebaseUid + SEPARATOR + event + SEPARATOR + data);
+    } catch (RuntimeException ex) {
+      // Other replicas miss this one; streams here still get it
+      logger.warn("Failed to publish {} event for {}: {}", event, firebaseUid, ex.getMessage());
+      deliver(firebaseUid, event, data);
+    }
+  }
+
+  @Override
+  public void onMessage(Message message, byte[] pattern) {
+    String body = new String(message.getBody(), StandardCharsets.UTF_8);
+    int first = body.indexOf(SEPARATOR);
+    int second = first < 0 ? -1 : body.indexOf(SEPARATOR, first + 1);
+    if (second < 0) {
+      return;
+    }
+    deliver(body.substring(0, first), body.substring(first + 1, second), body.substring(second + 1));
+  }
+
+  private void deliver(String firebaseUid, String event, String data) {
+    Set<Stream> userStreams = streams.get(firebaseUid);
+    if (userStreams == null) {
+      return;
+    }
+    for (Stream stream : userStreams) {
+      enqueue(firebaseUid, stream, new PendingEvent(SseEmitter.event().name(event).data(data), true));
+    }
+  }
+
+  // Keeps idle streams from being closed by proxies and finds clients that went away
+  @Scheduled(
+      fixedDelayString = "${app.live-updates.heartbeat-interval-ms:25000}",
+      initialDelayString = "${app.live-updates.heartbeat-interval-ms:25000}")
+  public void heartbeat() {
+    streams.keySet().forEach(this::markListening);
+    streams.forEach((firebaseUid, userStreams) -> userStreams.forEach(stream ->
+        enqueue(firebaseUid, stream, new PendingEvent(SseEmitter.event().comment("heartbeat"), false))));
+  }
+
+  private void enqueue(String firebaseUid, Stream stream, PendingEvent event) {
+    if (!stream.pending.offer(event)) {
+      logger.debug("Closing event stream for {}: {} events behind", firebaseUid, maxPendingEvents);
+      remove(firebaseUid, stream);
+      stream.emitter.complete();
+      return;
+    }
+    scheduleDrain(firebaseUid, stream);
+  }
+
+  // At most one drain per stream is queued or running, which keeps its sends in order
+  private void scheduleDrain(String firebaseUid, Stream stream) {
+    if (stream.draining.compareAndSet(false, true)) {
+      sendExecutor.execute(() -> drain(firebaseUid, stream));
+    }
+  }
+
+  private void drain(String firebaseUid, Stream stream) {
+    PendingEvent event;
+    while ((event = stream.pending.poll()) != null) {
+      if (send(firebaseUid, stream, event.builder()) && event.counted()) {
+        eventsSent.increment();
+      }
+    }
+    stream.draining.set(false);
+    // An event offered after the last poll but before the flag cleared would otherwise wait
+    if (!stream.pending.isEmpty()) {
+      scheduleDrain(firebaseUid, stream);
+    }
+  }
+
+  private boolean send(String firebaseUid, Stream stream, SseEmitter.SseEventBuilder event) {
+    try {
+      stream.emitter.send(event);
+      return true;
+    } catch (IOException | IllegalStateException ex) {
+      // The client disconnected or the stream already completed
+      remove(firebaseUid, stream);
+      stream.pending.clear();
+      stream.emitter.completeWithError(ex);
+      return false;
+    }
+  }
+
+  private void remove(String firebaseUid, Stream stream) {
+    streams.computeIfPresent(firebaseUid, (uid, userStreams) -> {
+      userStreams.remove(stream);
+      return userStreams.isEmpty() ? null : userStreams;
+    });
+  }
+
+  private record PendingEvent(SseEmitter.SseEventBuilder builder, boolean counted) {}
+
+  private static final class Stream {
+    private final SseEmitter emitter;
+    private final BlockingQueue<PendingEvent> pending;
+    private final AtomicBoolean draining = new AtomicBoolean();
+
+    Stream(SseEmitter emitter, int maxPendingEvents) {
+      this.emitter = emitter;
+      this.pending = new LinkedBlockingQueue<>(Math.max(1, maxPendingEvents));
+    }
+  }
+}
@@ -0,0 +1,70 @@
+package com.spendingapp.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+/**
+ * Records Hibernate statements per request, tagged by the matched URI pattern, and logs
+ * requests slower than the configured threshold together with the uid that made them. The uid
+ * goes to the log rather than a metric tag to keep metric cardinality bounded.
+ */
+public class RequestMetricsInterceptor implements HandlerInterceptor {
+  private static final Logger logger = LoggerFactory.getLogger(RequestMetricsInterceptor.class);
+  private static final String START_ATTRIBUTE = RequestMetricsInterceptor.class.getName() + ".start";
+
+  private final MeterRegistry meterRegistry;
+  private final long slowRequestNanos;
+  private final Map<String, DistributionSummary> statementSummaries = new ConcurrentHashMap<>();
+
+  public RequestMetricsInterceptor(MeterRegistry meterRegistry, Duration slowRequestThreshold) {
+    this.meterRegistry = meterRegistry;
+    this.slowRequestNanos = slowRequestThreshold.toNanos();
+  }
+
+  @Override
+  public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+    StatementCountInspector.reset();
+    request.setAttribute(START_ATTRIBUTE, System.nanoTime());
+    return true;
+  }
+
+  @Override
+  public void afterCompletion(
+      HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+    Object start = request.getAttribute(START_ATTRIBUTE);
+    if (!(start instanceof Long startNanos)) {
+      return;
+    }
+    Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+    String uri = pattern != null ? pattern.toString() : "UNKNOWN";
+    long statements = StatementCountInspector.current();
+    statementSummaries.computeIfAbsent(uri, this::statementSummary).record(statements);
+
+    long elapsedNanos = System.nanoTime() - startNanos;
+    if (elapsedNanos >= slowRequestNanos) {
+      Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+      logger.warn("Slow request {} {} took {} ms with {} statements (uid={}, status={})",
+          request.getMethod(), uri, elapsedNanos / 1_000_000, statements,
+          auth != null ? auth.getName() : null, response.getStatus());
+    }
+  }
+
+  private DistributionSummary statementSummary(String uri) {
+    return DistributionSummary.builder("http.server.requests.statements")
+        .description("Hibernate statements prepared per request")
+        .tag("uri", uri)
+        .maximumExpectedValue(256.0)
+        .register(meterRegistry);
+  }
+}
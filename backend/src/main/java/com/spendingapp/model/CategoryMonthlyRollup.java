@@ -0,0 +1,36 @@
+package com.spendingapp.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.EmbeddedId;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Table;
+import java.math.BigDecimal;
+
+/**
+ * Running sum and count of a user's spending in one category for one calendar month.
+ * Maintained by an upsert in the same transaction as every insert into {@code transactions}.
+ */
+@Entity
+@Table(name = "category_monthly_rollups")
+public class CategoryMonthlyRollup {
+  @EmbeddedId
+  private CategoryMonthlyRollupId id;
+
+  @Column(nullable = false, precision = 14, scale = 2)
+  private BigDecimal total;
+
+  @Column(nullable = false)
+  private long txCount;
+
+  public CategoryMonthlyRollupId getId() {
+    return id;
+  }
+
+  public BigDecimal getTotal() {
+    return total;
+  }
+
+  public long getTxCount() {
+    return txCount;
+  }
+}
@@ -0,0 +1,58 @@
+package com.spendingapp.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.util.Objects;
+
+@Embeddable
+public class CategoryMonthlyRollupId implements Serializable {
+  @Column(name = "user_id", nullable = false)
+  private Long userId;
+
+  @Column(name = "category_id", nullable = false)
+  private Integer categoryId;
+
+  @Column(nullable = false)
+  private LocalDate monthStart;
+
+  protected CategoryMonthlyRollupId() {
+  }
+
+  public CategoryMonthlyRollupId(Long userId, Integer categoryId, LocalDate monthStart) {
+    this.userId = userId;
+    this.categoryId = categoryId;
+    this.monthStart = monthStart;
+  }
+
+  public Long getUserId() {
+    return userId;
+  }
+
+  public Integer getCategoryId() {
+    return categoryId;
+  }
+
+  public LocalDate getMonthStart() {
+    return monthStart;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (!(o instanceof CategoryMonthlyRollupId other)) {
+      return false;
+    }
+    return Objects.equals(userId, other.userId)
+        && Objects.equals(categoryId, other.categoryId)
+        && Objects.equals(monthStart, other.monthStart);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(userId, categoryId, monthStart);
+  }
+}
@@ -0,0 +1,39 @@
+package com.spendingapp.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+/**
+ * Dictionary row: each distinct merchant name is stored once and referenced by id.
+ * Rows are never updated or deleted, so an id always means the same name.
+ */
+@Entity
+@Table(name = "merchants")
+public class Merchant {
+  @Id
+  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  private Integer id;
+
+  @Column(nullable = false, unique = true)
+  private String name;
+
+  protected Merchant() {
+  }
+
+  public Merchant(Integer id, String name) {
+    this.id = id;
+    this.name = name;
+  }
+
+  public Integer getId() {
+    return id;
+  }
+
+  public String getName() {
+    return name;
+  }
+}
@@ -8,6 +8,7 @@ import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 import java.math.BigDecimal;
 import java.time.Instant;
@@ -16,8 +17,13 @@ import java.time.LocalDate;
 @Entity
 @Table(name = "transactions")
 public class SpendingTransaction {
+  // A pooled sequence rather than IDENTITY: Hibernate can only batch inserts when it can
+  // assign ids before the INSERT, and allocationSize ids are reserved per nextval call. It must
+  // match the INCREMENT BY 50 that V3__partition_transactions.sql gives the sequence; Hibernate
+  // refuses to start on a mismatch.
   @Id
-  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "transactions_id_seq")
+  @SequenceGenerator(name = "transactions_id_seq", sequenceName = "transactions_id_seq", allocationSize = 50)
   private Long id;
 
   @ManyToOne(fetch = FetchType.LAZY)
@@ -27,11 +33,14 @@ public class SpendingTransaction {
   @Column(nullable = false)
   private BigDecimal amount;
 
-  @Column(nullable = false)
-  private String category;
+  // Dictionary references; set with getReference so writes never load the dictionary rows
+  @ManyToOne(fetch = FetchType.LAZY)
+  @JoinColumn(name = "category_id", nullable = false)
+  private Category category;
 
-  @Column(nullable = false)
-  private String merchant;
+  @ManyToOne(fetch = FetchType.LAZY)
+  @JoinColumn(name = "merchant_id", nullable = false)
+  private Merchant merchant;
 
   @Column(nullable = false)
   private LocalDate transactionDate;
@@ -59,19 +68,19 @@ public class SpendingTransaction {
     this.amount = amount;
   }
 
-  public String getCategory() {
+  public Category getCategory() {
     return category;
   }
 
-  public void setCategory(String category) {
+  public void setCategory(Category category) {
     this.category = category;
   }
 
-  public String getMerchant() {
+  public Merchant getMerchant() {
     return merchant;
   }
 
-  public void setMerchant(String merchant) {
+  public void setMerchant(Merchant merchant) {
     this.merchant = merchant;
   }
 
@@ -0,0 +1,63 @@
+package com.spendingapp.repository;
+
+import com.spendingapp.model.CategoryMonthlyRollup;
+import com.spendingapp.model.CategoryMonthlyRollupId;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+public interface CategoryMonthlyRollupRepository extends JpaRepository<CategoryMonthlyRollup, CategoryMonthlyRollupId> {
+  @Modifying
+  @Query(value = "insert into category_monthly_rollups (user_id, category_id, month_start, total, tx_count) "
+      + "values (:userId, :categoryId, :monthStart, :amount, :count) "
+      + "on conflict (user_id, category_id, month_start) do update "
+      + "set total = category_monthly_rollups.total + excluded.total, "
+      + "tx_count = category_monthly_rollups.tx_count + excluded.tx_count",
+      nativeQuery = true)
+  int addToRollup(
+      @Param("userId") Long userId,
+      @Param("categoryId") int categoryId,
+      @Param("monthStart") LocalDate monthStart,
+      @Param("amount") BigDecimal amount,
+      @Param("count") long count);
+
+  // Same row shape as SpendingTransactionRepository.aggregateByCategory, read from the rollups.
+  @Query("select r.id.categoryId, cast(sum(r.total) * 100 as Long), sum(r.txCount) from CategoryMonthlyRollup r "
+      + "where r.id.userId = :userId "
+      + "and r.id.monthStart between :fromMonth and :toMonth "
+      + "group by rollup(r.id.categoryId)")
+  List<Object[]> aggregateByCategory(
+      @Param("userId") long userId,
+      @Param("fromMonth") LocalDate fromMonth,
+      @Param("toMonth") LocalDate toMonth);
+
+  // One row: [the category's total cents, all categories' total cents, transaction count], all-time.
+  @Query("select cast(sum(case when r.id.categoryId = :categoryId then r.total else 0 end) * 100 as Long), "
+      + "cast(sum(r.total) * 100 as Long), sum(r.txCount) from CategoryMonthlyRollup r "
+      + "where r.id.userId = :userId")
+  List<Object[]> totalsWithCategory(@Param("userId") long userId, @Param("categoryId") int categoryId);
+
+  // Users are locked FOR UPDATE first: that conflicts with the FOR KEY SHARE lock the
+  // transactions.user_id foreign key takes on insert, so no write for these users can
+  // interleave between the delete and the re-aggregation below.
+  @Query(value = "select id from users where id between :fromUserId and :toUserId for update",
+      nativeQuery = true)
+  List<Long> lockUsers(@Param("fromUserId") long fromUserId, @Param("toUserId") long toUserId);
+
+  @Modifying
+  @Query(value = "delete from category_monthly_rollups where user_id between :fromUserId and :toUserId",
+      nativeQuery = true)
+  int deleteForUsers(@Param("fromUserId") long fromUserId, @Param("toUserId") long toUserId);
+
+  @Modifying
+  @Query(value = "insert into category_monthly_rollups (user_id, category_id, month_start, total, tx_count) "
+      + "select user_id, category_id, cast(date_trunc('month', transaction_date) as date), sum(amount), count(*) "
+      + "from transactions where user_id between :fromUserId and :toUserId "
+      + "group by user_id, category_id, cast(date_trunc('month', transaction_date) as date)",
+      nativeQuery = true)
+  int rebuildForUsers(@Param("fromUserId") long fromUserId, @Param("toUserId") long toUserId);
+}
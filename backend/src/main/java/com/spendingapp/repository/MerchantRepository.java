@@ -0,0 +1,20 @@
+package com.spendingapp.repository;
+
+import com.spendingapp.model.Merchant;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+public interface MerchantRepository extends JpaRepository<Merchant, Integer> {
+  @Query("select d.id from Merchant d where d.name = :name")
+  Integer findIdByName(@Param("name") String name);
+
+  @Query("select d.name from Merchant d where d.id = :id")
+  String findNameById(@Param("id") int id);
+
+  // "do update" rather than "do nothing" so RETURNING yields the id when the name already exists
+  @Query(value = "insert into merchants (name) values (:name) "
+      + "on conflict (name) do update set name = excluded.name returning id",
+      nativeQuery = true)
+  Integer insertIfAbsent(@Param("name") String name);
+}
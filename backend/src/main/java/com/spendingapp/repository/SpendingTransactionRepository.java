@@ -1,15 +1,70 @@
 package com.spendingapp.repository;
 
+import com.spendingapp.dto.SpendingDto;
 import com.spendingapp.model.SpendingTransaction;
+import java.time.LocalDate;
 import java.util.List;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+// Queries filter on user_id and a closed transaction_date range (never "is null or ..."), which
+// lets Postgres prune the monthly partitions and use the (user_id, transaction_date, id) index.
 public interface SpendingTransactionRepository extends JpaRepository<SpendingTransaction, Long> {
-  List<SpendingTransaction> findByUser_FirebaseUidOrderByTransactionDateDesc(String firebaseUid);
+  @Query("select new com.spendingapp.dto.SpendingDto(t.id, t.amount, t.category.name, t.merchant.name, t.transactionDate) "
+      + "from SpendingTransaction t "
+      + "where t.user.id = :userId "
+      + "and t.transactionDate between :fromDate and :toDate "
+      + "and (:category is null or t.category.name = :category) "
+      + "and (:merchant is null or t.merchant.name = :merchant) "
+      + "order by t.transactionDate desc, t.id desc")
+  List<SpendingDto> findFirstPage(
+      @Param("userId") long userId,
+      @Param("fromDate") LocalDate fromDate,
+      @Param("toDate") LocalDate toDate,
+      @Param("category") String category,
+      @Param("merchant") String merchant,
+      Pageable pageable);
 
-  @Query("select t.category as category, sum(t.amount) as total from SpendingTransaction t "
-      + "where t.user.firebaseUid = :uid group by t.category")
-  List<Object[]> sumByCategory(@Param("uid") String firebaseUid);
+  // Keyset continuation: the "<=" bound lets the planner range-scan on transaction_date,
+  // and the inner predicate breaks ties on id within the cursor's day.
+  @Query("select new com.spendingapp.dto.SpendingDto(t.id, t.amount, t.category.name, t.merchant.name, t.transactionDate) "
+      + "from SpendingTransaction t "
+      + "where t.user.id = :userId "
+      + "and t.transactionDate between :fromDate and :toDate "
+      + "and t.transactionDate <= :cursorDate "
+      + "and (t.transactionDate < :cursorDate or t.id < :cursorId) "
+      + "and (:category is null or t.category.name = :category) "
+      + "and (:merchant is null or t.merchant.name = :merchant) "
+      + "order by t.transactionDate desc, t.id desc")
+  List<SpendingDto> findPageAfter(
+      @Param("userId") long userId,
+      @Param("cursorDate") LocalDate cursorDate,
+      @Param("cursorId") Long cursorId,
+      @Param("fromDate") LocalDate fromDate,
+      @Param("toDate") LocalDate toDate,
+      @Param("category") String category,
+      @Param("merchant") String merchant,
+      Pageable pageable);
+
+  // One pass over the user's rows: per-category [category id, total cents, count] rows plus the
+  // rollup's grand-total row, which is the only row with a null category id.
+  @Query("select t.category.id, cast(sum(t.amount) * 100 as Long), count(t) from SpendingTransaction t "
+      + "where t.user.id = :userId "
+      + "and t.transactionDate between :fromDate and :toDate "
+      + "group by rollup(t.category.id)")
+  List<Object[]> aggregateByCategory(
+      @Param("userId") long userId,
+      @Param("fromDate") LocalDate fromDate,
+      @Param("toDate") LocalDate toDate);
+
+  // [merchant id, uses] for each merchant the user has spent at; an index-only scan, since
+  // transactions_user_date_idx includes merchant_id
+  @Query("select t.merchant.id, count(t) from SpendingTransaction t where t.user.id = :userId group by t.merchant.id")
+  List<Object[]> countByMerchant(@Param("userId") long userId);
+
+  // See V3__partition_transactions.sql; returns how many partitions were created
+  @Query(value = "select maintain_transactions_partitions(:monthsAhead)", nativeQuery = true)
+  int maintainPartitions(@Param("monthsAhead") int monthsAhead);
 }
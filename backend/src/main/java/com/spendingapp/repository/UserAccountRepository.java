@@ -3,7 +3,33 @@ package com.spendingapp.repository;
 import com.spendingapp.model.UserAccount;
 import java.util.Optional;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+/**
+ * The two inserts below are deliberately not {@code @Modifying}: INSERT ... RETURNING produces a
+ * result set, so it has to run as a query, whereas {@code @Modifying} would run it through
+ * executeUpdate and only get a row count back. They still write, so callers must be in a
+ * read-write transaction.
+ */
 public interface UserAccountRepository extends JpaRepository<UserAccount, Long> {
   Optional<UserAccount> findByFirebaseUid(String firebaseUid);
+
+  @Query("select u.id from UserAccount u where u.firebaseUid = :uid")
+  Optional<Long> findIdByFirebaseUid(@Param("uid") String firebaseUid);
+
+  // Returns null when the uid is already registered
+  @Query(value = "insert into users (firebase_uid, email, created_at) values (:uid, :email, now()) "
+      + "on conflict (firebase_uid) do nothing returning id",
+      nativeQuery = true)
+  Long insertIfNew(@Param("uid") String firebaseUid, @Param("email") String email);
+
+  // "do update" rather than "do nothing" so RETURNING yields the id when the uid already exists
+  @Query(value = "insert into users (firebase_uid, email, created_at) values (:uid, :email, now()) "
+      + "on conflict (firebase_uid) do update set firebase_uid = excluded.firebase_uid returning id",
+      nativeQuery = true)
+  Long insertIfAbsent(@Param("uid") String firebaseUid, @Param("email") String email);
+
+  @Query("select coalesce(max(u.id), 0) from UserAccount u")
+  long findMaxId();
 }
@@ -0,0 +1,35 @@
+package com.spendingapp.security;
+
+import com.google.firebase.FirebaseApp;
+import com.google.firebase.auth.FirebaseAuth;
+import com.google.firebase.auth.FirebaseAuthException;
+import com.google.firebase.auth.FirebaseToken;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConditionalOnProperty(name = "app.auth.verifier", havingValue = "firebase", matchIfMissing = true)
+public class FirebaseTokenVerifier implements TokenVerifier {
+  private final boolean checkRevoked;
+
+  public FirebaseTokenVerifier(@Value("${app.auth.check-revoked:false}") boolean checkRevoked) {
+    this.checkRevoked = checkRevoked;
+  }
+
+  @Override
+  public VerifiedIdToken verify(String token) {
+    if (FirebaseApp.getApps().isEmpty()) {
+      throw new IllegalStateException("Firebase not configured");
+    }
+    try {
+      FirebaseToken decodedToken = FirebaseAuth.getInstance().verifyIdToken(token, checkRevoked);
+      Object exp = decodedToken.getClaims().get("exp");
+      // Without an exp claim the token is still accepted, just never cached
+      long expiresAt = exp instanceof Number number ? number.longValue() : 0;
+      return new VerifiedIdToken(decodedToken.getUid(), expiresAt);
+    } catch (FirebaseAuthException ex) {
+      throw new IllegalArgumentException(ex.getMessage(), ex);
+    }
+  }
+}
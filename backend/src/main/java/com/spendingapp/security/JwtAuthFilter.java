@@ -1,11 +1,11 @@
 package com.spendingapp.security;
 
-import com.google.firebase.FirebaseApp;
-import com.google.firebase.auth.FirebaseAuth;
-import com.google.firebase.auth.FirebaseAuthException;
-import com.google.firebase.auth.FirebaseToken;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import java.io.IOException;
 import java.util.Collections;
+import java.util.concurrent.TimeUnit;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.http.HttpHeaders;
@@ -23,6 +23,33 @@ import jakarta.servlet.http.HttpServletResponse;
 public class JwtAuthFilter extends OncePerRequestFilter {
   private static final Logger logger = LoggerFactory.getLogger(JwtAuthFilter.class);
 
+  private final VerifiedTokenCache tokenCache;
+  private final TokenVerifier tokenVerifier;
+  private final Timer verifySuccess;
+  private final Timer verifyFailure;
+  private final Counter tokenCacheHits;
+  private final Counter tokenCacheMisses;
+
+  public JwtAuthFilter(
+      VerifiedTokenCache tokenCache,
+      TokenVerifier tokenVerifier,
+      MeterRegistry meterRegistry) {
+    this.tokenCache = tokenCache;
+    this.tokenVerifier = tokenVerifier;
+    this.verifySuccess = verifyTimer(meterRegistry, "success");
+    this.verifyFailure = verifyTimer(meterRegistry, "failure");
+    this.tokenCacheHits = Counter.builder("auth.token.cache").tag("result", "hit").register(meterRegistry);
+    this.tokenCacheMisses = Counter.builder("auth.token.cache").tag("result", "miss").register(meterRegistry);
+  }
+
+  private static Timer verifyTimer(MeterRegistry meterRegistry, String outcome) {
+    return Timer.builder("auth.token.verify")
+        .description("ID token verification on token cache misses")
+        .tag("outcome", outcome)
+        .publishPercentileHistogram()
+        .register(meterRegistry);
+  }
+
   @Override
   protected boolean shouldNotFilter(HttpServletRequest request) {
     // Skip filter for OPTIONS (preflight) requests
@@ -33,32 +60,41 @@ public class JwtAuthFilter extends OncePerRequestFilter {
   protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
       throws ServletException, IOException {
     String authHeader = request.getHeader(HttpHeaders.AUTHORIZATION);
-    String requestSummary = request.getMethod() + " " + request.getRequestURI();
 
     if (authHeader == null || !authHeader.startsWith("Bearer ")) {
-      logger.debug("Missing or invalid Authorization header for {}", requestSummary);
+      logger.debug("Missing or invalid Authorization header for {} {}", request.getMethod(), request.getRequestURI());
       filterChain.doFilter(request, response);
       return;
     }
 
-    if (FirebaseApp.getApps().isEmpty()) {
-      logger.error("Firebase is not configured; rejecting auth requests.");
-      response.sendError(HttpServletResponse.SC_INTERNAL_SERVER_ERROR, "Firebase not configured");
-      return;
-    }
-
     String token = authHeader.substring("Bearer ".length());
-    try {
-      FirebaseToken decodedToken = FirebaseAuth.getInstance().verifyIdToken(token);
-      String uid = decodedToken.getUid();
-      logger.debug("Authenticated Firebase user {} for {}", uid, requestSummary);
-      UsernamePasswordAuthenticationToken authentication =
-          new UsernamePasswordAuthenticationToken(uid, null, Collections.emptyList());
-      SecurityContextHolder.getContext().setAuthentication(authentication);
-      filterChain.doFilter(request, response);
-    } catch (FirebaseAuthException ex) {
-      logger.warn("Invalid Firebase token for {}: {}", requestSummary, ex.getMessage());
-      response.sendError(HttpServletResponse.SC_UNAUTHORIZED, "Invalid token");
+    String uid = tokenCache.getUid(token);
+    if (uid != null) {
+      tokenCacheHits.increment();
+    } else {
+      tokenCacheMisses.increment();
+      long start = System.nanoTime();
+      try {
+        VerifiedIdToken verified = tokenVerifier.verify(token);
+        verifySuccess.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        uid = verified.uid();
+        tokenCache.put(token, uid, verified.expiresAtEpochSecond());
+      } catch (IllegalStateException ex) {
+        logger.error("Token verifier unavailable; rejecting auth requests: {}", ex.getMessage());
+        response.sendError(HttpServletResponse.SC_INTERNAL_SERVER_ERROR, ex.getMessage());
+        return;
+      } catch (IllegalArgumentException ex) {
+        verifyFailure.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        logger.warn("Invalid token for {} {}: {}", request.getMethod(), request.getRequestURI(), ex.getMessage());
+        response.sendError(HttpServletResponse.SC_UNAUTHORIZED, "Invalid token");
+        return;
+      }
     }
+
+    logger.debug("Authenticated user {} for {} {}", uid, request.getMethod(), request.getRequestURI());
+    UsernamePasswordAuthenticationToken authentication =
+        new UsernamePasswordAuthenticationToken(uid, null, Collections.emptyList());
+    SecurityContextHolder.getContext().setAuthentication(authentication);
+    filterChain.doFilter(request, response);
   }
 }
@@ -0,0 +1,89 @@
+package com.spendingapp.security;
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Offline stand-in for Firebase, enabled with {@code app.auth.verifier=local}. Tokens have the
+ * form {@code local.<base64url uid>.<exp epoch seconds>.<base64url HMAC-SHA256>} and are signed
+ * with {@code app.auth.local.secret}. Never enable this in production: anyone holding the secret
+ * can mint tokens for any uid.
+ */
+@Component
+@ConditionalOnProperty(name = "app.auth.verifier", havingValue = "local")
+public class LocalTokenVerifier implements TokenVerifier {
+  private static final Logger logger = LoggerFactory.getLogger(LocalTokenVerifier.class);
+  private static final String PREFIX = "local.";
+  private static final String ALGORITHM = "HmacSHA256";
+
+  private final SecretKeySpec key;
+
+  public LocalTokenVerifier(@Value("${app.auth.local.secret:}") String secret) {
+    if (secret == null || secret.length() < 32) {
+      throw new IllegalStateException("app.auth.local.secret must be at least 32 characters");
+    }
+    this.key = new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), ALGORITHM);
+    logger.warn("Local token verification is enabled; Firebase is not consulted.");
+  }
+
+  public String issue(String uid, Duration ttl) {
+    String payload = PREFIX
+        + Base64.getUrlEncoder().withoutPadding().encodeToString(uid.getBytes(StandardCharsets.UTF_8))
+        + "." + Instant.now().plus(ttl).getEpochSecond();
+    return payload + "." + Base64.getUrlEncoder().withoutPadding().encodeToString(sign(payload));
+  }
+
+  @Override
+  public VerifiedIdToken verify(String token) {
+    int signatureStart = token.lastIndexOf('.');
+    int expStart = signatureStart > 0 ? token.lastIndexOf('.', signatureStart - 1) : -1;
+    if (!token.startsWith(PREFIX) || expStart < PREFIX.length()) {
+      throw new IllegalArgumentException("Malformed token");
+    }
+
+    String payload = token.substring(0, signatureStart);
+    byte[] signature;
+    try {
+      signature = Base64.getUrlDecoder().decode(token.substring(signatureStart + 1));
+    } catch (IllegalArgumentException ex) {
+      throw new IllegalArgumentException("Malformed token");
+    }
+    if (!MessageDigest.isEqual(sign(payload), signature)) {
+      throw new IllegalArgumentException("Bad signature");
+    }
+
+    long expiresAt;
+    String uid;
+    try {
+      expiresAt = Long.parseLong(token.substring(expStart + 1, signatureStart));
+      uid = new String(Base64.getUrlDecoder().decode(token.substring(PREFIX.length(), expStart)), StandardCharsets.UTF_8);
+    } catch (IllegalArgumentException ex) {
+      throw new IllegalArgumentException("Malformed token");
+    }
+    if (expiresAt <= Instant.now().getEpochSecond()) {
+      throw new IllegalArgumentException("Token expired");
+    }
+    return new VerifiedIdToken(uid, expiresAt);
+  }
+
+  private byte[] sign(String payload) {
+    try {
+      Mac mac = Mac.getInstance(ALGORITHM);
+      mac.init(key);
+      return mac.doFinal(payload.getBytes(StandardCharsets.UTF_8));
+    } catch (GeneralSecurityException ex) {
+      throw new IllegalStateException("HMAC-SHA256 not available", ex);
+    }
+  }
+}
@@ -1,5 +1,7 @@
 package com.spendingapp.security;
 
+import com.spendingapp.web.RateLimitFilter;
+import jakarta.servlet.DispatcherType;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpMethod;
@@ -17,19 +19,26 @@ import java.util.List;
 @Configuration
 public class SecurityConfig {
   @Bean
-  public SecurityFilterChain filterChain(HttpSecurity http, JwtAuthFilter jwtAuthFilter) throws Exception {
+  public SecurityFilterChain filterChain(
+      HttpSecurity http, JwtAuthFilter jwtAuthFilter, RateLimitFilter rateLimitFilter) throws Exception {
     http
         .csrf(csrf -> csrf.disable())
         .cors(Customizer.withDefaults())
         .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
         .authorizeHttpRequests(auth -> auth
+            // The request was authenticated before it went async (event streams); the
+            // completion dispatch carries no token of its own
+            .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
             .requestMatchers("/health").permitAll()
+            // Only served on management.server.port, which is not exposed outside the cluster
             .requestMatchers("/actuator/**").permitAll()
             .requestMatchers("/users/register").permitAll()
             .requestMatchers(HttpMethod.OPTIONS, "/**").permitAll()
             .anyRequest().authenticated()
         )
-        .addFilterBefore(jwtAuthFilter, UsernamePasswordAuthenticationFilter.class);
+        .addFilterBefore(jwtAuthFilter, UsernamePasswordAuthenticationFilter.class)
+        // Keyed by the uid JwtAuthFilter just authenticated
+        .addFilterAfter(rateLimitFilter, JwtAuthFilter.class);
     return http.build();
   }
 
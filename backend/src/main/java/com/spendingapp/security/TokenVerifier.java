@@ -0,0 +1,13 @@
+package com.spendingapp.security;
+
+/**
+ * Verifies the bearer tokens {@link JwtAuthFilter} receives. Firebase in production; the local
+ * implementation signs and checks tokens offline for load tests and local runs.
+ */
+public interface TokenVerifier {
+  /**
+   * @throws IllegalArgumentException if the token is malformed, badly signed or expired
+   * @throws IllegalStateException if the verifier itself is not usable (e.g. not configured)
+   */
+  VerifiedIdToken verify(String token);
+}
@@ -0,0 +1,7 @@
+package com.spendingapp.security;
+
+/**
+ * The parts of a verified ID token the backend relies on: who it belongs to and when it stops
+ * being valid.
+ */
+public record VerifiedIdToken(String uid, long expiresAtEpochSecond) {}
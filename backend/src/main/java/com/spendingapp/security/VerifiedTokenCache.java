@@ -0,0 +1,86 @@
+package com.spendingapp.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Remembers which uid an already-verified ID token belongs to, keyed by a SHA-256 digest of the
+ * token so raw tokens are never held in memory. An entry never outlives the token's {@code exp}
+ * claim, and when revocation checks are enabled it is also capped at the recheck interval.
+ */
+@Component
+public class VerifiedTokenCache {
+  private final Cache<String, VerifiedToken> cache;
+  private final Duration maxTtl;
+
+  public VerifiedTokenCache(
+      @Value("${app.auth.token-cache.maximum-size:50000}") long maximumSize,
+      @Value("${app.auth.check-revoked:false}") boolean checkRevoked,
+      @Value("${app.auth.revocation-recheck-interval:60s}") Duration revocationRecheckInterval) {
+    this.maxTtl = checkRevoked ? revocationRecheckInterval : null;
+    this.cache = Caffeine.newBuilder()
+        .maximumSize(maximumSize)
+        .expireAfter(new TokenExpiry())
+        .build();
+  }
+
+  public String getUid(String token) {
+    VerifiedToken verified = cache.getIfPresent(digest(token));
+    if (verified == null || verified.expiresAtMillis() <= System.currentTimeMillis()) {
+      return null;
+    }
+    return verified.uid();
+  }
+
+  public void put(String token, String uid, long expiresAtEpochSecond) {
+    long expiresAtMillis = TimeUnit.SECONDS.toMillis(expiresAtEpochSecond);
+    if (maxTtl != null) {
+      expiresAtMillis = Math.min(expiresAtMillis, System.currentTimeMillis() + maxTtl.toMillis());
+    }
+    if (expiresAtMillis > System.currentTimeMillis()) {
+      cache.put(digest(token), new VerifiedToken(uid, expiresAtMillis));
+    }
+  }
+
+  private static String digest(String token) {
+    try {
+      MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+      return Base64.getEncoder().encodeToString(sha256.digest(token.getBytes(StandardCharsets.UTF_8)));
+    } catch (NoSuchAlgorithmException ex) {
+      throw new IllegalStateException("SHA-256 not available", ex);
+    }
+  }
+
+  private record VerifiedToken(String uid, long expiresAtMillis) {}
+
+  private static final class TokenExpiry implements Expiry<String, VerifiedToken> {
+    @Override
+    public long expireAfterCreate(String key, VerifiedToken value, long currentTime) {
+      return remainingNanos(value);
+    }
+
+    @Override
+    public long expireAfterUpdate(String key, VerifiedToken value, long currentTime, long currentDuration) {
+      return remainingNanos(value);
+    }
+
+    @Override
+    public long expireAfterRead(String key, VerifiedToken value, long currentTime, long currentDuration) {
+      return currentDuration;
+    }
+
+    private static long remainingNanos(VerifiedToken value) {
+      long remainingMillis = value.expiresAtMillis() - System.currentTimeMillis();
+      return TimeUnit.MILLISECONDS.toNanos(Math.max(0, remainingMillis));
+    }
+  }
+}
@@ -0,0 +1,28 @@
+package com.spendingapp.service;
+
+import com.spendingapp.dto.DashboardResponse;
+import com.spendingapp.dto.SpendingFilter;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+@Service
+public class DashboardService {
+  private final SpendingService spendingService;
+
+  public DashboardService(SpendingService spendingService) {
+    this.spendingService = spendingService;
+  }
+
+  /**
+   * First page of transactions plus all-time insights in one read-only transaction, so a page
+   * load holds one connection. Insights go through the proxied service and so still hit the
+   * insights cache (and, on a miss, the monthly rollups).
+   */
+  @Transactional(readOnly = true)
+  public DashboardResponse getDashboard(String firebaseUid, int limit) {
+    return new DashboardResponse(
+        spendingService.getTransactions(firebaseUid, SpendingFilter.none(), null, limit),
+        spendingService.getInsights(firebaseUid, null, null)
+    );
+  }
+}
@@ -0,0 +1,81 @@
+package com.spendingapp.service;
+
+import java.time.Duration;
+import java.util.List;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Service;
+
+/**
+ * Per-user, monotonically increasing data version kept in Redis. Every write bumps it after
+ * commit (see {@link UserWriteEffects}), so a version read before serving data is never newer
+ * than the data itself.
+ *
+ * <p>A missing key is seeded from the clock in microseconds rather than from 1, so versions
+ * keep increasing even after the key expires or Redis loses its data.
+ */
+@Service
+public class DataVersionService {
+  private static final Logger logger = LoggerFactory.getLogger(DataVersionService.class);
+  private static final String KEY_PREFIX = "data-version:";
+
+  private static final RedisScript<Long> GET_OR_SEED = RedisScript.of(
+      "local v = redis.call('get', KEYS[1]) "
+          + "if v then return tonumber(v) end "
+          + "redis.call('set', KEYS[1], ARGV[1], 'px', ARGV[2]) "
+          + "return tonumber(ARGV[1])",
+      Long.class);
+
+  private static final RedisScript<Long> BUMP = RedisScript.of(
+      "if redis.call('exists', KEYS[1]) == 1 then "
+          + "local v = redis.call('incr', KEYS[1]) "
+          + "redis.call('pexpire', KEYS[1], ARGV[2]) "
+          + "return v end "
+          + "redis.call('set', KEYS[1], ARGV[1], 'px', ARGV[2]) "
+          + "return tonumber(ARGV[1])",
+      Long.class);
+
+  private final StringRedisTemplate redisTemplate;
+  private final String ttlMillis;
+
+  public DataVersionService(
+      StringRedisTemplate redisTemplate,
+      @Value("${app.data-version.ttl:30d}") Duration ttl) {
+    this.redisTemplate = redisTemplate;
+    this.ttlMillis = Long.toString(ttl.toMillis());
+  }
+
+  /**
+   * Returns the user's current version, or null if Redis is unavailable (callers then serve
+   * the full response without an ETag).
+   */
+  public Long currentVersion(String firebaseUid) {
+    try {
+      return redisTemplate.execute(GET_OR_SEED, List.of(KEY_PREFIX + firebaseUid), seed(), ttlMillis);
+    } catch (RuntimeException ex) {
+      logger.warn("Could not read data version for {}: {}", firebaseUid, ex.getMessage());
+      return null;
+    }
+  }
+
+  public void bump(String firebaseUid) {
+    try {
+      redisTemplate.execute(BUMP, List.of(KEY_PREFIX + firebaseUid), seed(), ttlMillis);
+    } catch (RuntimeException ex) {
+      logger.warn("Could not bump data version for {}: {}", firebaseUid, ex.getMessage());
+      try {
+        // A deleted key is reseeded from the clock on the next read, which still invalidates old tags
+        redisTemplate.delete(KEY_PREFIX + firebaseUid);
+      } catch (RuntimeException ignored) {
+        // Redis is unreachable; reads skip ETags until it is back
+      }
+    }
+  }
+
+  private static String seed() {
+    return Long.toString(System.currentTimeMillis() * 1000);
+  }
+}
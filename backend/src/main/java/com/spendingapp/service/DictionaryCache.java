@@ -0,0 +1,161 @@
+package com.spendingapp.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.spendingapp.model.Category;
+import com.spendingapp.model.Merchant;
+import com.spendingapp.repository.CategoryRepository;
+import com.spendingapp.repository.MerchantRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * In-memory name/id mapping for the {@code categories} and {@code merchants} dictionaries. Reads
+ * are lock-free cache hits; a miss looks the name up and inserts it if it is new.
+ *
+ * <p>A name resolved inside a transaction is only cached once that transaction commits: a
+ * rolled-back insert must not leave behind an id that points at no row. Until then the mapping is
+ * remembered for the rest of the transaction only.
+ */
+@Component
+public class DictionaryCache {
+  @PersistenceContext
+  private EntityManager entityManager;
+
+  private final Dictionary categories;
+  private final Dictionary merchants;
+
+  public DictionaryCache(
+      CategoryRepository categoryRepository,
+      MerchantRepository merchantRepository,
+      @Value("${app.dictionary.maximum-size:100000}") long maximumSize) {
+    this.categories = new Dictionary("categories", maximumSize,
+        categoryRepository::findIdByName, categoryRepository::insertIfAbsent, categoryRepository::findNameById);
+    this.merchants = new Dictionary("merchants", maximumSize,
+        merchantRepository::findIdByName, merchantRepository::insertIfAbsent, merchantRepository::findNameById);
+  }
+
+  /** A reference for the entity's foreign key; does not load the row. */
+  public Category category(String name) {
+    return entityManager.getReference(Category.class, categories.idOf(name));
+  }
+
+  public Merchant merchant(String name) {
+    return entityManager.getReference(Merchant.class, merchants.idOf(name));
+  }
+
+  public int categoryId(String name) {
+    return categories.idOf(name);
+  }
+
+  public int merchantId(String name) {
+    return merchants.idOf(name);
+  }
+
+  public String categoryName(int id) {
+    return categories.nameOf(id);
+  }
+
+  public String merchantName(int id) {
+    return merchants.nameOf(id);
+  }
+
+  private static final class Dictionary {
+    private final String table;
+    private final String resourceKey;
+    private final Cache<String, Integer> ids;
+    private final Cache<Integer, String> names;
+    private final Function<String, Integer> findId;
+    private final Function<String, Integer> insertIfAbsent;
+    private final IntFunction<String> findName;
+
+    Dictionary(
+        String table,
+        long maximumSize,
+        Function<String, Integer> findId,
+        Function<String, Integer> insertIfAbsent,
+        IntFunction<String> findName) {
+      this.table = table;
+      this.resourceKey = DictionaryCache.class.getName() + "." + table;
+      this.ids = Caffeine.newBuilder().maximumSize(maximumSize).build();
+      this.names = Caffeine.newBuilder().maximumSize(maximumSize).build();
+      this.findId = findId;
+      this.insertIfAbsent = insertIfAbsent;
+      this.findName = findName;
+    }
+
+    int idOf(String name) {
+      Integer id = ids.getIfPresent(name);
+      if (id != null) {
+        return id;
+      }
+      Map<String, Integer> pending = pendingInTransaction();
+      if (pending != null && (id = pending.get(name)) != null) {
+        return id;
+      }
+
+      // Plain lookup first: the upsert locks the row until commit, which would serialize
+      // every transaction that misses on a popular name.
+      id = findId.apply(name);
+      if (id == null) {
+        id = insertIfAbsent.apply(name);
+      }
+      if (pending != null) {
+        pending.put(name, id);
+      } else {
+        remember(name, id);
+      }
+      return id;
+    }
+
+    String nameOf(int id) {
+      String name = names.getIfPresent(id);
+      if (name != null) {
+        return name;
+      }
+      name = findName.apply(id);
+      if (name == null) {
+        throw new IllegalStateException("Unknown " + table + " id " + id);
+      }
+      // Both ways: the insights codec maps names read here back to their ids
+      remember(name, id);
+      return name;
+    }
+
+    private void remember(String name, int id) {
+      ids.put(name, id);
+      names.put(id, name);
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, Integer> pendingInTransaction() {
+      if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+        return null;
+      }
+      Map<String, Integer> pending = (Map<String, Integer>) TransactionSynchronizationManager.getResource(resourceKey);
+      if (pending == null) {
+        Map<String, Integer> created = new HashMap<>();
+        TransactionSynchronizationManager.bindResource(resourceKey, created);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+          @Override
+          public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(resourceKey);
+            if (status == STATUS_COMMITTED) {
+              created.forEach(Dictionary.this::remember);
+            }
+          }
+        });
+        pending = created;
+      }
+      return pending;
+    }
+  }
+}
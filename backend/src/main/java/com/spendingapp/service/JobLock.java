@@ -0,0 +1,72 @@
+package com.spendingapp.service;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+/**
+ * Redis lock ({@code SET NX PX}) that keeps a scheduled job to one replica at a time. The holder
+ * extends the lock as it makes progress; if it dies the lock expires after its TTL and another
+ * replica can take over.
+ *
+ * <p>Unlike the cache leases, an unreachable Redis means the lock is not acquired: skipping a
+ * run is safer than every replica running the same batch job at once.
+ */
+@Component
+public class JobLock {
+  private static final Logger logger = LoggerFactory.getLogger(JobLock.class);
+  private static final String KEY_PREFIX = "job-lock:";
+
+  // Only the holder may extend or release, so a lock that expired and was re-taken is left alone
+  private static final RedisScript<Long> EXTEND = new DefaultRedisScript<>(
+      "if redis.call('GET', KEYS[1]) == ARGV[1] then return redis.call('PEXPIRE', KEYS[1], ARGV[2]) end return 0",
+      Long.class);
+  private static final RedisScript<Long> RELEASE = new DefaultRedisScript<>(
+      "if redis.call('GET', KEYS[1]) == ARGV[1] then return redis.call('DEL', KEYS[1]) end return 0",
+      Long.class);
+
+  private final StringRedisTemplate redisTemplate;
+
+  public JobLock(StringRedisTemplate redisTemplate) {
+    this.redisTemplate = redisTemplate;
+  }
+
+  /** Returns a token to pass to {@link #extend} and {@link #release}, or null if not acquired. */
+  public String tryAcquire(String job, Duration ttl) {
+    String token = UUID.randomUUID().toString();
+    try {
+      Boolean acquired = redisTemplate.opsForValue()
+          .setIfAbsent(KEY_PREFIX + job, token, ttl.toMillis(), TimeUnit.MILLISECONDS);
+      return Boolean.TRUE.equals(acquired) ? token : null;
+    } catch (RuntimeException ex) {
+      logger.warn("Could not take the {} job lock, skipping this run: {}", job, ex.getMessage());
+      return null;
+    }
+  }
+
+  /** Resets the TTL; false if the lock is no longer held with this token. */
+  public boolean extend(String job, String token, Duration ttl) {
+    try {
+      Long extended = redisTemplate.execute(EXTEND, List.of(KEY_PREFIX + job), token, Long.toString(ttl.toMillis()));
+      return extended != null && extended == 1;
+    } catch (RuntimeException ex) {
+      logger.warn("Could not extend the {} job lock: {}", job, ex.getMessage());
+      return false;
+    }
+  }
+
+  public void release(String job, String token) {
+    try {
+      redisTemplate.execute(RELEASE, List.of(KEY_PREFIX + job), token);
+    } catch (RuntimeException ex) {
+      logger.warn("Could not release the {} job lock, it expires on its own: {}", job, ex.getMessage());
+    }
+  }
+}
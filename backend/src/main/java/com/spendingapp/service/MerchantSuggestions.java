@@ -0,0 +1,107 @@
+package com.spendingapp.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.spendingapp.analytics.PrefixIndex;
+import com.spendingapp.repository.SpendingTransactionRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * Merchant autocomplete from a per-user {@link PrefixIndex} held in memory. A user's index is
+ * built from their history on their first lookup (one grouped, index-only query), then kept up
+ * to date by {@link SpendingService#createTransaction} so lookups never touch the database.
+ * Indexes are weighed by their estimated size and evicted once the total passes the memory
+ * budget, least recently used first.
+ *
+ * <p>Each replica keeps its own indexes and only sees its own writes, so an index also expires
+ * after {@code max-age} to pick up what other replicas and bulk writes added.
+ */
+@Component
+public class MerchantSuggestions {
+  private final Cache<Long, PrefixIndex> indexes;
+  private final SpendingTransactionRepository transactionRepository;
+  private final UserService userService;
+  private final DictionaryCache dictionary;
+  private final Counter hits;
+  private final Counter builds;
+
+  public MerchantSuggestions(
+      SpendingTransactionRepository transactionRepository,
+      UserService userService,
+      DictionaryCache dictionary,
+      @Value("${app.merchant-suggest.memory-budget:32MB}") DataSize memoryBudget,
+      @Value("${app.merchant-suggest.max-age:30m}") Duration maxAge,
+      MeterRegistry meterRegistry) {
+    this.indexes = Caffeine.newBuilder()
+        .maximumWeight(memoryBudget.toBytes())
+        .weigher((Long userId, PrefixIndex index) -> index.estimatedBytes())
+        .expireAfterWrite(maxAge)
+        .build();
+    this.transactionRepository = transactionRepository;
+    this.userService = userService;
+    this.dictionary = dictionary;
+    this.hits = Counter.builder("merchant.suggest.index").tag("result", "hit").register(meterRegistry);
+    this.builds = Counter.builder("merchant.suggest.index").tag("result", "built").register(meterRegistry);
+  }
+
+  public List<String> suggest(String firebaseUid, String prefix, int limit) {
+    Optional<Long> userId = userService.findUserId(firebaseUid);
+    if (userId.isEmpty()) {
+      return List.of();
+    }
+    PrefixIndex index = indexes.getIfPresent(userId.get());
+    if (index != null) {
+      hits.increment();
+    } else {
+      // Concurrent first lookups for a user share one build
+      index = indexes.get(userId.get(), this::build);
+    }
+    return index.suggest(prefix, limit);
+  }
+
+  private PrefixIndex build(long userId) {
+    builds.increment();
+    Map<String, Long> usesByName = new HashMap<>();
+    for (Object[] row : transactionRepository.countByMerchant(userId)) {
+      usesByName.merge(dictionary.merchantName(((Number) row[0]).intValue()), ((Number) row[1]).longValue(), Long::sum);
+    }
+    return usesByName.isEmpty() ? PrefixIndex.empty() : PrefixIndex.of(usesByName);
+  }
+
+  /**
+   * Counts one more use of {@code merchant} in the user's index, if it has been built, once the
+   * current transaction commits. An index that is not built yet reads the row when it is.
+   */
+  public void recordAfterCommit(long userId, String merchant) {
+    runAfterCommit(() -> indexes.asMap().computeIfPresent(userId, (id, index) -> index.withUse(merchant)));
+  }
+
+  /** Drops the user's index after a bulk write; the next lookup rebuilds it. */
+  public void invalidateAfterCommit(long userId) {
+    runAfterCommit(() -> indexes.invalidate(userId));
+  }
+
+  private static void runAfterCommit(Runnable action) {
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      action.run();
+      return;
+    }
+    TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+      @Override
+      public void afterCommit() {
+        action.run();
+      }
+    });
+  }
+}
@@ -0,0 +1,49 @@
+package com.spendingapp.service;
+
+import com.spendingapp.repository.SpendingTransactionRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Keeps the monthly {@code transactions} partitions ahead of the calendar, and gives any month
+ * that has collected rows in the default partition (e.g. from an import of old statements) a
+ * partition of its own so queries on it can be pruned again.
+ */
+@Service
+public class PartitionMaintenanceService {
+  private static final Logger logger = LoggerFactory.getLogger(PartitionMaintenanceService.class);
+
+  private final SpendingTransactionRepository transactionRepository;
+
+  @Value("${app.partitions.months-ahead:3}")
+  private int monthsAhead;
+
+  public PartitionMaintenanceService(SpendingTransactionRepository transactionRepository) {
+    this.transactionRepository = transactionRepository;
+  }
+
+  @EventListener(ApplicationReadyEvent.class)
+  public void maintainOnStartup() {
+    maintain();
+  }
+
+  @Scheduled(cron = "${app.partitions.cron:-}")
+  public void scheduledMaintenance() {
+    maintain();
+  }
+
+  @Transactional
+  public int maintain() {
+    int created = transactionRepository.maintainPartitions(monthsAhead);
+    if (created > 0) {
+      logger.info("Created {} transactions partitions", created);
+    }
+    return created;
+  }
+}
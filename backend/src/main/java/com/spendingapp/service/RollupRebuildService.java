@@ -0,0 +1,106 @@
+package com.spendingapp.service;
+
+import com.spendingapp.repository.CategoryMonthlyRollupRepository;
+import com.spendingapp.repository.UserAccountRepository;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Recomputes {@code category_monthly_rollups} from {@code transactions}, one user-id range per
+ * transaction, with ranges processed in parallel. Used to backfill rollups and to repair any
+ * drift from the incremental upserts in {@link SpendingService#createTransaction}.
+ */
+@Service
+public class RollupRebuildService {
+  private static final Logger logger = LoggerFactory.getLogger(RollupRebuildService.class);
+
+  private final CategoryMonthlyRollupRepository rollupRepository;
+  private final UserAccountRepository userRepository;
+  private final TransactionTemplate transactionTemplate;
+
+  @Value("${app.rollups.rebuild.chunk-size:500}")
+  private int chunkSize;
+
+  @Value("${app.rollups.rebuild.parallelism:2}")
+  private int parallelism;
+
+  @Value("${app.rollups.rebuild.on-startup:false}")
+  private boolean rebuildOnStartup;
+
+  public RollupRebuildService(
+      CategoryMonthlyRollupRepository rollupRepository,
+      UserAccountRepository userRepository,
+      PlatformTransactionManager transactionManager) {
+    this.rollupRepository = rollupRepository;
+    this.userRepository = userRepository;
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+  }
+
+  @EventListener(ApplicationReadyEvent.class)
+  public void rebuildOnStartup() {
+    if (rebuildOnStartup) {
+      rebuildAll();
+    }
+  }
+
+  @Scheduled(cron = "${app.rollups.rebuild.cron:-}")
+  public void scheduledRebuild() {
+    rebuildAll();
+  }
+
+  public int rebuildAll() {
+    long maxUserId = userRepository.findMaxId();
+    if (maxUserId == 0) {
+      return 0;
+    }
+
+    long started = System.nanoTime();
+    AtomicInteger rows = new AtomicInteger();
+    ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, parallelism));
+    try {
+      List<Future<?>> chunks = new ArrayList<>();
+      for (long from = 1; from <= maxUserId; from += chunkSize) {
+        long chunkFrom = from;
+        long chunkTo = Math.min(from + chunkSize - 1, maxUserId);
+        chunks.add(executor.submit(() -> rows.addAndGet(rebuildRange(chunkFrom, chunkTo))));
+      }
+      for (Future<?> chunk : chunks) {
+        chunk.get();
+      }
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Rollup rebuild interrupted", ex);
+    } catch (ExecutionException ex) {
+      throw new IllegalStateException("Rollup rebuild failed", ex.getCause());
+    } finally {
+      executor.shutdownNow();
+    }
+
+    logger.info("Rebuilt {} rollup rows for users 1..{} in {} ms",
+        rows.get(), maxUserId, (System.nanoTime() - started) / 1_000_000);
+    return rows.get();
+  }
+
+  public int rebuildRange(long fromUserId, long toUserId) {
+    Integer rebuilt = transactionTemplate.execute(status -> {
+      rollupRepository.lockUsers(fromUserId, toUserId);
+      rollupRepository.deleteForUsers(fromUserId, toUserId);
+      return rollupRepository.rebuildForUsers(fromUserId, toUserId);
+    });
+    return rebuilt != null ? rebuilt : 0;
+  }
+}
@@ -0,0 +1,67 @@
+package com.spendingapp.service;
+
+import com.spendingapp.analytics.Cents;
+import com.spendingapp.analytics.CentsAggregator;
+import com.spendingapp.analytics.SlotIndex;
+import com.spendingapp.model.SpendingTransaction;
+import com.spendingapp.model.UserAccount;
+import com.spendingapp.repository.CategoryMonthlyRollupRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.List;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Inserts many transactions for one user through Hibernate's JDBC batching and folds them into
+ * one rollup upsert per (category, month) instead of one per row. Must run inside the caller's
+ * transaction; the persistence context is cleared afterwards so batches don't accumulate.
+ */
+@Component
+public class SpendingBatchWriter {
+  @PersistenceContext
+  private EntityManager entityManager;
+
+  private final CategoryMonthlyRollupRepository rollupRepository;
+  private final DictionaryCache dictionary;
+
+  public SpendingBatchWriter(CategoryMonthlyRollupRepository rollupRepository, DictionaryCache dictionary) {
+    this.rollupRepository = rollupRepository;
+    this.dictionary = dictionary;
+  }
+
+  @Transactional(propagation = Propagation.MANDATORY)
+  public void write(Long userId, List<ValidatedSpending> rows) {
+    UserAccount user = entityManager.getReference(UserAccount.class, userId);
+    SlotIndex<RollupKey> rollupKeys = new SlotIndex<>();
+    CentsAggregator deltas = new CentsAggregator();
+
+    for (ValidatedSpending row : rows) {
+      BigDecimal normalizedAmount = row.amount().setScale(2, RoundingMode.HALF_UP);
+      SpendingTransaction transaction = new SpendingTransaction();
+      transaction.setUser(user);
+      transaction.setAmount(normalizedAmount);
+      transaction.setCategory(dictionary.category(row.category()));
+      transaction.setMerchant(dictionary.merchant(row.merchant()));
+      transaction.setTransactionDate(row.transactionDate());
+      entityManager.persist(transaction);
+
+      int slot = rollupKeys.slotOf(
+          new RollupKey(transaction.getCategory().getId(), row.transactionDate().withDayOfMonth(1)));
+      deltas.add(slot, Cents.of(normalizedAmount));
+    }
+    entityManager.flush();
+    entityManager.clear();
+
+    for (int slot = 0; slot < rollupKeys.size(); slot++) {
+      RollupKey key = rollupKeys.key(slot);
+      rollupRepository.addToRollup(userId, key.categoryId(), key.monthStart(), deltas.total(slot), deltas.count(slot));
+    }
+  }
+
+  private record RollupKey(int categoryId, LocalDate monthStart) {}
+}
@@ -0,0 +1,174 @@
+package com.spendingapp.service;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.spendingapp.dto.SpendingFilter;
+import io.micrometer.core.annotation.Timed;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.Optional;
+import javax.sql.DataSource;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Writes a user's transactions straight from a server-side cursor to an output stream. Postgres
+ * only streams with a fetch size inside a transaction, so each export runs in one read-only
+ * transaction; rows are plain JDBC values, never entities, so memory stays flat however long
+ * the history is.
+ */
+@Service
+@Timed("spending.export")
+public class SpendingExportService {
+  public enum Format { CSV, NDJSON }
+
+  private static final String CSV_HEADER = "id,amount,category,merchant,transactionDate\n";
+
+  // Same order and index as the paginated list, read from the covering index
+  private static final String EXPORT_QUERY = "select id, amount, category_id, merchant_id, transaction_date "
+      + "from transactions where user_id = ? and transaction_date between ? and ? "
+      + "order by transaction_date desc, id desc";
+
+  private final JdbcTemplate jdbcTemplate;
+  private final TransactionTemplate readOnlyTransaction;
+  private final UserService userService;
+  private final DictionaryCache dictionary;
+  private final JsonFactory jsonFactory = new JsonFactory();
+
+  public SpendingExportService(
+      DataSource dataSource,
+      PlatformTransactionManager transactionManager,
+      UserService userService,
+      DictionaryCache dictionary,
+      @Value("${app.export.fetch-size:1000}") int fetchSize) {
+    // Its own template, so the fetch size doesn't apply to anyone else's queries
+    this.jdbcTemplate = new JdbcTemplate(dataSource);
+    this.jdbcTemplate.setFetchSize(fetchSize);
+    this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+    this.readOnlyTransaction.setReadOnly(true);
+    this.userService = userService;
+    this.dictionary = dictionary;
+  }
+
+  /** Writes the export to {@code out} (not closed) and returns how many rows it held. */
+  public long export(String firebaseUid, LocalDate from, LocalDate to, Format format, OutputStream out)
+      throws IOException {
+    Writer writer = new OutputStreamWriter(out, StandardCharsets.UTF_8);
+    RowWriter rows = format == Format.NDJSON ? new NdjsonRows(jsonFactory.createGenerator(writer)) : new CsvRows(writer);
+    rows.start();
+
+    Optional<Long> userId = userService.findUserId(firebaseUid);
+    long[] count = {0};
+    if (userId.isPresent()) {
+      readOnlyTransaction.executeWithoutResult(status -> jdbcTemplate.query(EXPORT_QUERY,
+          resultSet -> {
+            try {
+              rows.write(resultSet);
+            } catch (IOException ex) {
+              throw new UncheckedIOException(ex);
+            }
+            count[0]++;
+          },
+          userId.get(),
+          SpendingFilter.orEarliest(from),
+          SpendingFilter.orLatest(to)));
+    }
+    rows.finish();
+    writer.flush();
+    return count[0];
+  }
+
+  private interface RowWriter {
+    void start() throws IOException;
+
+    void write(ResultSet row) throws IOException, SQLException;
+
+    void finish() throws IOException;
+  }
+
+  // Same columns the CSV import reads, so an export can be imported again
+  private final class CsvRows implements RowWriter {
+    private final Writer writer;
+
+    CsvRows(Writer writer) {
+      this.writer = writer;
+    }
+
+    @Override
+    public void start() throws IOException {
+      writer.write(CSV_HEADER);
+    }
+
+    @Override
+    public void write(ResultSet row) throws IOException, SQLException {
+      writer.write(Long.toString(row.getLong(1)));
+      writer.write(',');
+      writer.write(row.getBigDecimal(2).toPlainString());
+      writer.write(',');
+      writeField(dictionary.categoryName(row.getInt(3)));
+      writer.write(',');
+      writeField(dictionary.merchantName(row.getInt(4)));
+      writer.write(',');
+      writer.write(row.getObject(5, LocalDate.class).toString());
+      writer.write('\n');
+    }
+
+    @Override
+    public void finish() {
+    }
+
+    // RFC 4180: quote fields containing a separator, quote or line break, doubling inner quotes
+    private void writeField(String value) throws IOException {
+      if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+        writer.write(value);
+        return;
+      }
+      writer.write('"');
+      writer.write(value.replace("\"", "\"\""));
+      writer.write('"');
+    }
+  }
+
+  // One SpendingDto-shaped object per line
+  private final class NdjsonRows implements RowWriter {
+    private final JsonGenerator generator;
+
+    NdjsonRows(JsonGenerator generator) {
+      this.generator = generator;
+      generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+      // Lines are ended explicitly below instead of separated by Jackson's default space
+      generator.setRootValueSeparator(null);
+    }
+
+    @Override
+    public void start() {
+    }
+
+    @Override
+    public void write(ResultSet row) throws IOException, SQLException {
+      generator.writeStartObject();
+      generator.writeNumberField("id", row.getLong(1));
+      generator.writeNumberField("amount", row.getBigDecimal(2));
+      generator.writeStringField("category", dictionary.categoryName(row.getInt(3)));
+      generator.writeStringField("merchant", dictionary.merchantName(row.getInt(4)));
+      generator.writeStringField("transactionDate", row.getObject(5, LocalDate.class).toString());
+      generator.writeEndObject();
+      generator.writeRaw('\n');
+    }
+
+    @Override
+    public void finish() throws IOException {
+      generator.flush();
+    }
+  }
+}
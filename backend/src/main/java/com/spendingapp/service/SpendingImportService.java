@@ -0,0 +1,228 @@
+package com.spendingapp.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.spendingapp.dto.CreateSpendingRequest;
+import com.spendingapp.dto.ImportResult;
+import com.spendingapp.dto.ImportRowError;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * Imports a bank statement streamed as CSV (with a header row) or NDJSON, one line at a time.
+ * Valid rows are written in batches, one transaction per batch; invalid rows are skipped and
+ * reported with their line number.
+ */
+@Service
+public class SpendingImportService {
+  private static final int MAX_REPORTED_ERRORS = 100;
+
+  public enum Format { CSV, NDJSON }
+
+  private final UserService userService;
+  private final SpendingBatchWriter batchWriter;
+  private final TransactionTemplate transactionTemplate;
+  private final UserWriteEffects writeEffects;
+  private final MerchantSuggestions merchantSuggestions;
+  private final ObjectReader ndjsonReader;
+
+  @Value("${app.import.batch-size:500}")
+  private int batchSize;
+
+  @Value("${app.import.max-rows:100000}")
+  private long maxRows;
+
+  public SpendingImportService(
+      UserService userService,
+      SpendingBatchWriter batchWriter,
+      PlatformTransactionManager transactionManager,
+      UserWriteEffects writeEffects,
+      MerchantSuggestions merchantSuggestions,
+      ObjectMapper objectMapper) {
+    this.userService = userService;
+    this.batchWriter = batchWriter;
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+    this.writeEffects = writeEffects;
+    this.merchantSuggestions = merchantSuggestions;
+    this.ndjsonReader = objectMapper.readerFor(CreateSpendingRequest.class);
+  }
+
+  public ImportResult importStatement(String firebaseUid, InputStream body, Format format) throws IOException {
+    long started = System.nanoTime();
+    BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+    skipByteOrderMark(reader);
+
+    // The header is checked before the user is registered, so a bad file changes nothing
+    long lineNumber = 0;
+    CsvColumns columns = null;
+    if (format == Format.CSV) {
+      String header;
+      while ((header = reader.readLine()) != null) {
+        lineNumber++;
+        if (!header.isBlank()) {
+          try {
+            columns = CsvColumns.fromHeader(header);
+          } catch (IllegalArgumentException ex) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, ex.getMessage());
+          }
+          break;
+        }
+      }
+    }
+
+    long userId = userService.resolveOrAutoRegister(firebaseUid);
+    List<ValidatedSpending> batch = new ArrayList<>(batchSize);
+    List<ImportRowError> errors = new ArrayList<>();
+    long imported = 0;
+    long rejected = 0;
+
+    try {
+      String line;
+      while ((line = reader.readLine()) != null) {
+        lineNumber++;
+        if (line.isBlank()) {
+          continue;
+        }
+        if (imported + batch.size() + rejected >= maxRows) {
+          errors.add(new ImportRowError(lineNumber, "Row limit of " + maxRows + " reached; remaining rows ignored"));
+          break;
+        }
+
+        try {
+          CreateSpendingRequest request = format == Format.CSV ? columns.toRequest(line) : ndjsonReader.readValue(line);
+          if (request == null) {
+            // The line was JSON null
+            throw new IllegalArgumentException("Expected a JSON object");
+          }
+          batch.add(SpendingValidator.validate(request));
+        } catch (IllegalArgumentException | JsonProcessingException ex) {
+          rejected++;
+          if (errors.size() < MAX_REPORTED_ERRORS) {
+            String message = ex instanceof JsonProcessingException ? "Invalid JSON" : ex.getMessage();
+            errors.add(new ImportRowError(lineNumber, message));
+          }
+          continue;
+        }
+
+        if (batch.size() >= batchSize) {
+          imported += writeBatch(userId, batch);
+        }
+      }
+      if (!batch.isEmpty()) {
+        imported += writeBatch(userId, batch);
+      }
+    } finally {
+      // One eviction and version bump for the whole import instead of one per row
+      if (imported > 0) {
+        writeEffects.afterUserWrite(firebaseUid);
+        merchantSuggestions.invalidateAfterCommit(userId);
+      }
+    }
+
+    long elapsedNanos = System.nanoTime() - started;
+    double rowsPerSecond = elapsedNanos > 0 ? imported * 1_000_000_000.0 / elapsedNanos : 0;
+    return new ImportResult(imported, rejected, errors, elapsedNanos / 1_000_000, rowsPerSecond);
+  }
+
+  // Excel's "CSV UTF-8" export starts with one, and the reader passes it through as U+FEFF
+  private static void skipByteOrderMark(BufferedReader reader) throws IOException {
+    reader.mark(1);
+    if (reader.read() != '\uFEFF') {
+      reader.reset();
+    }
+  }
+
+  private int writeBatch(Long userId, List<ValidatedSpending> batch) {
+    transactionTemplate.executeWithoutResult(status -> batchWriter.write(userId, batch));
+    int written = batch.size();
+    batch.clear();
+    return written;
+  }
+
+  /**
+   * Column positions taken from the CSV header, so statements may order columns freely.
+   */
+  record CsvColumns(int amount, int category, int merchant, int transactionDate) {
+    static CsvColumns fromHeader(String header) {
+      List<String> names = splitCsvLine(header);
+      int amount = -1;
+      int category = -1;
+      int merchant = -1;
+      int transactionDate = -1;
+      for (int i = 0; i < names.size(); i++) {
+        switch (names.get(i).trim().toLowerCase(Locale.ROOT)) {
+          case "amount" -> amount = i;
+          case "category" -> category = i;
+          case "merchant" -> merchant = i;
+          case "transactiondate", "transaction_date", "date" -> transactionDate = i;
+          default -> {
+            // Extra statement columns are ignored
+          }
+        }
+      }
+      if (amount < 0 || category < 0 || merchant < 0 || transactionDate < 0) {
+        throw new IllegalArgumentException(
+            "CSV header must contain amount, category, merchant and transactionDate columns");
+      }
+      return new CsvColumns(amount, category, merchant, transactionDate);
+    }
+
+    CreateSpendingRequest toRequest(String line) {
+      List<String> fields = splitCsvLine(line);
+      CreateSpendingRequest request = new CreateSpendingRequest();
+      request.setAmount(field(fields, amount));
+      request.setCategory(field(fields, category));
+      request.setMerchant(field(fields, merchant));
+      request.setTransactionDate(field(fields, transactionDate));
+      return request;
+    }
+
+    private static String field(List<String> fields, int index) {
+      return index < fields.size() ? fields.get(index) : null;
+    }
+  }
+
+  // RFC 4180 fields on a single line: quoted fields may contain commas and "" escapes.
+  static List<String> splitCsvLine(String line) {
+    List<String> fields = new ArrayList<>();
+    StringBuilder current = new StringBuilder();
+    boolean quoted = false;
+    for (int i = 0; i < line.length(); i++) {
+      char c = line.charAt(i);
+      if (quoted) {
+        if (c == '"') {
+          if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+            current.append('"');
+            i++;
+          } else {
+            quoted = false;
+          }
+        } else {
+          current.append(c);
+        }
+      } else if (c == '"') {
+        quoted = true;
+      } else if (c == ',') {
+        fields.add(current.toString());
+        current.setLength(0);
+      } else {
+        current.append(c);
+      }
+    }
+    fields.add(current.toString());
+    return fields;
+  }
+}
@@ -1,66 +1,142 @@
 package com.spendingapp.service;
 
+import com.spendingapp.analytics.Cents;
 import com.spendingapp.dto.InsightDto;
 import com.spendingapp.dto.InsightsResponse;
+import com.spendingapp.dto.SpendingCursor;
 import com.spendingapp.dto.SpendingDto;
+import com.spendingapp.dto.SpendingFilter;
+import com.spendingapp.dto.SpendingPage;
+import com.spendingapp.dto.SpendingUpdate;
+import com.spendingapp.live.LiveUpdates;
 import com.spendingapp.model.SpendingTransaction;
 import com.spendingapp.model.UserAccount;
+import com.spendingapp.repository.CategoryMonthlyRollupRepository;
 import com.spendingapp.repository.SpendingTransactionRepository;
-import com.spendingapp.repository.UserAccountRepository;
+import io.micrometer.core.annotation.Timed;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Optional;
-import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 @Service
+@Timed("spending.service")
 public class SpendingService {
+  public static final int DEFAULT_PAGE_SIZE = 50;
+  public static final int MAX_PAGE_SIZE = 200;
+
+  @PersistenceContext
+  private EntityManager entityManager;
+
   private final SpendingTransactionRepository transactionRepository;
-  private final UserAccountRepository userRepository;
+  private final UserService userService;
+  private final CategoryMonthlyRollupRepository rollupRepository;
+  private final DictionaryCache dictionary;
+  private final UserWriteEffects writeEffects;
+  private final LiveUpdates liveUpdates;
+  private final MerchantSuggestions merchantSuggestions;
 
-  public SpendingService(SpendingTransactionRepository transactionRepository, UserAccountRepository userRepository) {
+  public SpendingService(
+      SpendingTransactionRepository transactionRepository,
+      UserService userService,
+      CategoryMonthlyRollupRepository rollupRepository,
+      DictionaryCache dictionary,
+      UserWriteEffects writeEffects,
+      LiveUpdates liveUpdates,
+      MerchantSuggestions merchantSuggestions) {
     this.transactionRepository = transactionRepository;
-    this.userRepository = userRepository;
+    this.userService = userService;
+    this.rollupRepository = rollupRepository;
+    this.dictionary = dictionary;
+    this.writeEffects = writeEffects;
+    this.liveUpdates = liveUpdates;
+    this.merchantSuggestions = merchantSuggestions;
   }
 
-  public List<SpendingDto> getTransactions(String firebaseUid) {
-    List<SpendingTransaction> transactions =
-        transactionRepository.findByUser_FirebaseUidOrderByTransactionDateDesc(firebaseUid);
-    return transactions.stream()
-        .map(tx -> new SpendingDto(
-            tx.getId(),
-            tx.getAmount(),
-            tx.getCategory(),
-            tx.getMerchant(),
-            tx.getTransactionDate()
-        ))
-        .toList();
-  }
+  @Transactional(readOnly = true)
+  public SpendingPage getTransactions(String firebaseUid, SpendingFilter filter, String cursor, int limit) {
+    Optional<Long> userId = userService.findUserId(firebaseUid);
+    if (userId.isEmpty()) {
+      return new SpendingPage(List.of(), null);
+    }
+    LocalDate from = SpendingFilter.orEarliest(filter.from());
+    LocalDate to = SpendingFilter.orLatest(filter.to());
 
-  @Cacheable(value = "insights", key = "#firebaseUid")
-  public InsightsResponse getInsights(String firebaseUid) {
-    List<SpendingTransaction> transactions =
-        transactionRepository.findByUser_FirebaseUidOrderByTransactionDateDesc(firebaseUid);
+    int pageSize = Math.min(Math.max(limit, 1), MAX_PAGE_SIZE);
+    // Fetch one extra row to learn whether another page exists without a count query
+    Pageable pageable = PageRequest.of(0, pageSize + 1);
 
-    BigDecimal totalSpent = transactions.stream()
-        .map(SpendingTransaction::getAmount)
-        .reduce(BigDecimal.ZERO, BigDecimal::add);
+    List<SpendingDto> rows;
+    if (cursor == null || cursor.isBlank()) {
+      rows = transactionRepository.findFirstPage(
+          userId.get(), from, to, filter.category(), filter.merchant(), pageable);
+    } else {
+      SpendingCursor position = SpendingCursor.decode(cursor);
+      rows = transactionRepository.findPageAfter(
+          userId.get(), position.transactionDate(), position.id(),
+          from, to, filter.category(), filter.merchant(), pageable);
+    }
+
+    if (rows.size() <= pageSize) {
+      return new SpendingPage(rows, null);
+    }
+    List<SpendingDto> items = rows.subList(0, pageSize);
+    return new SpendingPage(List.copyOf(items), SpendingCursor.of(items.get(pageSize - 1)).encode());
+  }
 
-    List<Object[]> categoryRows = transactionRepository.sumByCategory(firebaseUid);
-    List<InsightDto> insights = new ArrayList<>();
-    for (Object[] row : categoryRows) {
-      insights.add(new InsightDto((String) row[0], (BigDecimal) row[1]));
+  // Only the all-time view is cached: it is the one every dashboard load asks for, and a single
+  // key per user keeps the eviction in createTransaction exact. sync makes concurrent misses
+  // share one recomputation (see TwoTierCache).
+  @Cacheable(value = "insights", key = "#firebaseUid", condition = "#from == null && #to == null", sync = true)
+  @Transactional(readOnly = true)
+  public InsightsResponse getInsights(String firebaseUid, LocalDate from, LocalDate to) {
+    // Whole-month ranges (including all-time) are answered from the monthly rollups, whose size
+    // depends on categories x months rather than on how many transactions the user has.
+    Optional<Long> userId = userService.findUserId(firebaseUid);
+    if (userId.isEmpty()) {
+      return new InsightsResponse(Cents.toAmount(0), 0, List.of());
     }
+    LocalDate rangeFrom = SpendingFilter.orEarliest(from);
+    LocalDate rangeTo = SpendingFilter.orLatest(to);
+    List<Object[]> rows = isMonthAligned(from, to)
+        ? rollupRepository.aggregateByCategory(userId.get(), rangeFrom, rangeTo)
+        : transactionRepository.aggregateByCategory(userId.get(), rangeFrom, rangeTo);
 
-    return new InsightsResponse(totalSpent, transactions.size(), insights);
+    long totalCents = 0;
+    int transactionCount = 0;
+    List<InsightDto> insights = new ArrayList<>(rows.size());
+    for (Object[] row : rows) {
+      Integer categoryId = (Integer) row[0];
+      long cents = row[1] != null ? ((Number) row[1]).longValue() : 0;
+      long count = row[2] != null ? ((Number) row[2]).longValue() : 0;
+      if (categoryId == null) {
+        totalCents = cents;
+        transactionCount = Math.toIntExact(count);
+      } else {
+        insights.add(new InsightDto(dictionary.categoryName(categoryId), Cents.toAmount(cents)));
+      }
+    }
+    // Grouped by id in SQL; order by name here
+    insights.sort(Comparator.comparing(InsightDto::category));
+
+    return new InsightsResponse(Cents.toAmount(totalCents), transactionCount, insights);
+  }
+
+  private static boolean isMonthAligned(LocalDate from, LocalDate to) {
+    return (from == null || from.getDayOfMonth() == 1)
+        && (to == null || to.getDayOfMonth() == to.lengthOfMonth());
   }
 
-  @CacheEvict(value = "insights", key = "#firebaseUid")
   @Transactional
   public SpendingTransaction createTransaction(
       String firebaseUid,
@@ -68,23 +144,36 @@ public class SpendingService {
       String category,
       String merchant,
       LocalDate transactionDate) {
-    
-    // Get or create user - auto-register if user doesn't exist
-    UserAccount user = userRepository.findByFirebaseUid(firebaseUid)
-        .orElseGet(() -> {
-          UserAccount newUser = new UserAccount();
-          newUser.setFirebaseUid(firebaseUid);
-          newUser.setEmail(firebaseUid + "@auto-registered.local"); // Placeholder email
-          return userRepository.save(newUser);
-        });
+    long userId = userService.resolveOrAutoRegister(firebaseUid);
 
     BigDecimal normalizedAmount = amount.setScale(2, RoundingMode.HALF_UP);
     SpendingTransaction transaction = new SpendingTransaction();
-    transaction.setUser(user);
+    transaction.setUser(entityManager.getReference(UserAccount.class, userId));
     transaction.setAmount(normalizedAmount);
-    transaction.setCategory(category);
-    transaction.setMerchant(merchant);
+    transaction.setCategory(dictionary.category(category));
+    transaction.setMerchant(dictionary.merchant(merchant));
     transaction.setTransactionDate(transactionDate);
-    return transactionRepository.save(transaction);
+    SpendingTransaction saved = transactionRepository.save(transaction);
+    int categoryId = transaction.getCategory().getId();
+    rollupRepository.addToRollup(userId, categoryId, transactionDate.withDayOfMonth(1), normalizedAmount, 1);
+    writeEffects.afterUserWriteCommits(firebaseUid);
+    // Building the update costs a rollup query, so only when someone is listening
+    if (liveUpdates.hasListeners(firebaseUid)) {
+      liveUpdates.publishAfterCommit(firebaseUid, spendingUpdate(userId, categoryId, saved));
+    }
+    merchantSuggestions.recordAfterCommit(userId, merchant);
+    return saved;
+  }
+
+  // Totals after this write, read from the rollups this transaction just updated
+  private SpendingUpdate spendingUpdate(long userId, int categoryId, SpendingTransaction saved) {
+    Object[] totals = rollupRepository.totalsWithCategory(userId, categoryId).get(0);
+    String category = dictionary.categoryName(categoryId);
+    return new SpendingUpdate(
+        new SpendingDto(saved.getId(), saved.getAmount(), category,
+            dictionary.merchantName(saved.getMerchant().getId()), saved.getTransactionDate()),
+        new InsightDto(category, Cents.toAmount(((Number) totals[0]).longValue())),
+        Cents.toAmount(((Number) totals[1]).longValue()),
+        Math.toIntExact(((Number) totals[2]).longValue()));
   }
 }
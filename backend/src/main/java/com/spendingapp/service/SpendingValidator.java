@@ -0,0 +1,60 @@
+package com.spendingapp.service;
+
+import com.spendingapp.dto.CreateSpendingRequest;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.regex.Pattern;
+
+/**
+ * The rules every new transaction must pass, whether it arrives through {@code POST /spending}
+ * or a bulk import.
+ */
+public final class SpendingValidator {
+  private static final Pattern AMOUNT_PATTERN = Pattern.compile("^\\d+(\\.\\d{1,2})?$");
+
+  private SpendingValidator() {
+  }
+
+  public static ValidatedSpending validate(CreateSpendingRequest request) {
+    if (request.getAmount() == null || request.getAmount().isBlank()) {
+      throw new IllegalArgumentException("Amount is required");
+    }
+    if (request.getCategory() == null || request.getCategory().isBlank()) {
+      throw new IllegalArgumentException("Category is required");
+    }
+    if (request.getMerchant() == null || request.getMerchant().isBlank()) {
+      throw new IllegalArgumentException("Merchant is required");
+    }
+    if (request.getTransactionDate() == null || request.getTransactionDate().isBlank()) {
+      throw new IllegalArgumentException("Transaction date is required");
+    }
+
+    String amountRaw = request.getAmount().trim();
+    if (!AMOUNT_PATTERN.matcher(amountRaw).matches()) {
+      throw new IllegalArgumentException("Amount must have up to 2 decimal places");
+    }
+
+    BigDecimal amount = new BigDecimal(amountRaw);
+    if (amount.compareTo(BigDecimal.ZERO) <= 0) {
+      throw new IllegalArgumentException("Amount must be greater than 0");
+    }
+
+    LocalDate transactionDate;
+    try {
+      transactionDate = LocalDate.parse(request.getTransactionDate().trim());
+    } catch (DateTimeParseException ex) {
+      throw new IllegalArgumentException("Transaction date must be in YYYY-MM-DD format");
+    }
+    if (transactionDate.isAfter(LocalDate.now())) {
+      throw new IllegalArgumentException("Transaction date cannot be in the future");
+    }
+
+    return new ValidatedSpending(
+        amount,
+        request.getCategory().trim(),
+        request.getMerchant().trim(),
+        transactionDate
+    );
+  }
+}
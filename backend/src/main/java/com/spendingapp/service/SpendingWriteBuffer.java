@@ -0,0 +1,218 @@
+package com.spendingapp.service;
+
+import com.spendingapp.datasource.ReadYourWrites;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * Optional write-behind path for {@code POST /spending}. Validated writes are queued and a single
+ * writer thread drains them in batches, committing each batch in one transaction and evicting
+ * each affected user's insights once per batch. A full queue is rejected with 429 so callers
+ * back off instead of piling up behind the database.
+ */
+@Component
+public class SpendingWriteBuffer {
+  private static final Logger logger = LoggerFactory.getLogger(SpendingWriteBuffer.class);
+
+  private final boolean enabled;
+  private final boolean durableAck;
+  private final Duration ackTimeout;
+  private final int maxBatchSize;
+  private final BlockingQueue<PendingWrite> queue;
+
+  private final UserService userService;
+  private final SpendingBatchWriter batchWriter;
+  private final TransactionTemplate transactionTemplate;
+  private final ReadYourWrites readYourWrites;
+  private final UserWriteEffects writeEffects;
+  private final MerchantSuggestions merchantSuggestions;
+
+  private final DistributionSummary batchSizes;
+  private final Timer batchCommits;
+  private final Counter rejections;
+
+  private volatile boolean running;
+  private Thread writer;
+
+  public SpendingWriteBuffer(
+      @Value("${app.ingest.write-behind.enabled:false}") boolean enabled,
+      @Value("${app.ingest.write-behind.durable-ack:true}") boolean durableAck,
+      @Value("${app.ingest.write-behind.ack-timeout:5s}") Duration ackTimeout,
+      @Value("${app.ingest.write-behind.queue-capacity:10000}") int queueCapacity,
+      @Value("${app.ingest.write-behind.max-batch-size:500}") int maxBatchSize,
+      UserService userService,
+      SpendingBatchWriter batchWriter,
+      PlatformTransactionManager transactionManager,
+      ReadYourWrites readYourWrites,
+      UserWriteEffects writeEffects,
+      MerchantSuggestions merchantSuggestions,
+      MeterRegistry meterRegistry) {
+    this.enabled = enabled;
+    this.durableAck = durableAck;
+    this.ackTimeout = ackTimeout;
+    this.maxBatchSize = maxBatchSize;
+    this.queue = new ArrayBlockingQueue<>(queueCapacity);
+    this.userService = userService;
+    this.batchWriter = batchWriter;
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+    this.readYourWrites = readYourWrites;
+    this.writeEffects = writeEffects;
+    this.merchantSuggestions = merchantSuggestions;
+
+    Gauge.builder("spending.ingest.queue.depth", queue, BlockingQueue::size).register(meterRegistry);
+    this.batchSizes = DistributionSummary.builder("spending.ingest.batch.size").register(meterRegistry);
+    this.batchCommits = Timer.builder("spending.ingest.batch.commit").register(meterRegistry);
+    this.rejections = Counter.builder("spending.ingest.rejected").register(meterRegistry);
+  }
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  @PostConstruct
+  void start() {
+    if (!enabled) {
+      return;
+    }
+    running = true;
+    writer = new Thread(this::drainLoop, "spending-write-behind");
+    writer.setDaemon(true);
+    writer.start();
+  }
+
+  @PreDestroy
+  void stop() throws InterruptedException {
+    if (writer == null) {
+      return;
+    }
+    // The loop keeps draining until the queue is empty, so accepted writes are not dropped
+    running = false;
+    writer.join(TimeUnit.SECONDS.toMillis(30));
+  }
+
+  /**
+   * Queues a write. Returns true once it has committed when durable acks are on, or false when
+   * it was only accepted (durable acks off, or the commit took longer than the ack timeout).
+   */
+  public boolean submit(String firebaseUid, ValidatedSpending spending) {
+    PendingWrite pending = new PendingWrite(firebaseUid, spending, new CompletableFuture<>());
+    if (!running || !queue.offer(pending)) {
+      rejections.increment();
+      throw new ResponseStatusException(HttpStatus.TOO_MANY_REQUESTS, "Write queue is full");
+    }
+    // The flusher pins again on commit, but only here is there a response to carry the pin cookie
+    readYourWrites.pin(firebaseUid);
+    if (!durableAck) {
+      return false;
+    }
+
+    try {
+      pending.committed().get(ackTimeout.toMillis(), TimeUnit.MILLISECONDS);
+      return true;
+    } catch (TimeoutException ex) {
+      return false;
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      return false;
+    } catch (ExecutionException ex) {
+      if (ex.getCause() instanceof RuntimeException runtime) {
+        throw runtime;
+      }
+      throw new IllegalStateException("Write failed", ex.getCause());
+    }
+  }
+
+  private void drainLoop() {
+    List<PendingWrite> batch = new ArrayList<>(maxBatchSize);
+    while (running || !queue.isEmpty()) {
+      try {
+        PendingWrite first = queue.poll(100, TimeUnit.MILLISECONDS);
+        if (first == null) {
+          continue;
+        }
+        batch.add(first);
+        queue.drainTo(batch, maxBatchSize - 1);
+        writeBatch(batch);
+      } catch (InterruptedException ex) {
+        Thread.currentThread().interrupt();
+        running = false;
+      } catch (RuntimeException ex) {
+        logger.error("Write-behind batch of {} failed", batch.size(), ex);
+      } finally {
+        batch.clear();
+      }
+    }
+  }
+
+  private void writeBatch(List<PendingWrite> batch) {
+    Map<String, List<PendingWrite>> byUser = new LinkedHashMap<>();
+    for (PendingWrite pending : batch) {
+      byUser.computeIfAbsent(pending.firebaseUid(), uid -> new ArrayList<>()).add(pending);
+    }
+
+    try {
+      batchCommits.record(() -> transactionTemplate.executeWithoutResult(status ->
+          byUser.forEach(this::writeUserGroup)));
+    } catch (RuntimeException batchFailure) {
+      // Retry each user's rows on their own so one bad group doesn't fail everyone else's writes
+      logger.warn("Write-behind batch failed, retrying per user: {}", batchFailure.getMessage());
+      byUser.forEach(this::retryUserGroup);
+      return;
+    }
+    batchSizes.record(batch.size());
+    byUser.forEach(this::completeUserGroup);
+  }
+
+  private void retryUserGroup(String firebaseUid, List<PendingWrite> writes) {
+    try {
+      transactionTemplate.executeWithoutResult(status -> writeUserGroup(firebaseUid, writes));
+    } catch (RuntimeException ex) {
+      writes.forEach(pending -> pending.committed().completeExceptionally(ex));
+      return;
+    }
+    completeUserGroup(firebaseUid, writes);
+  }
+
+  private void writeUserGroup(String firebaseUid, List<PendingWrite> writes) {
+    long userId = userService.resolveOrAutoRegister(firebaseUid);
+    batchWriter.write(userId, writes.stream().map(PendingWrite::spending).toList());
+    // Registered in the batch transaction, so a rolled-back batch counts nothing
+    writes.forEach(pending -> merchantSuggestions.recordAfterCommit(userId, pending.spending().merchant()));
+  }
+
+  private void completeUserGroup(String firebaseUid, List<PendingWrite> writes) {
+    try {
+      writeEffects.afterUserWrite(firebaseUid);
+    } catch (RuntimeException ex) {
+      logger.warn("Failed to invalidate reads for {} after write-behind commit: {}", firebaseUid, ex.getMessage());
+    } finally {
+      writes.forEach(pending -> pending.committed().complete(null));
+    }
+  }
+
+  private record PendingWrite(String firebaseUid, ValidatedSpending spending, CompletableFuture<Void> committed) {}
+}
@@ -0,0 +1,364 @@
+package com.spendingapp.service;
+
+import com.spendingapp.analytics.Cents;
+import com.spendingapp.analytics.MonthlyTrends;
+import com.spendingapp.cache.CodecInput;
+import com.spendingapp.cache.CodecOutput;
+import com.spendingapp.dto.CategoryTrendDto;
+import com.spendingapp.dto.TrendMoverDto;
+import com.spendingapp.dto.TrendsResponse;
+import com.spendingapp.repository.UserAccountRepository;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import javax.sql.DataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Precomputes each user's month-over-month trends into {@code trend_snapshots}, so
+ * {@code GET /insights/trends} is one primary-key lookup.
+ *
+ * <p>A run covers the {@code months} complete months up to last month. Users are split into id
+ * ranges processed in parallel, as in {@link RollupRebuildService}; each range streams its
+ * monthly rollups from a server-side cursor and writes its snapshots in one transaction. Only
+ * one replica runs at a time ({@link JobLock}, renewed every third of its TTL while the run is
+ * active), and {@code trend_snapshot_runs} records the first user not yet written so a run cut
+ * short by a restart resumes from there. Runs go to the application task executor so they hold
+ * neither the startup thread nor the scheduler's.
+ */
+@Service
+public class TrendSnapshotService {
+  private static final Logger logger = LoggerFactory.getLogger(TrendSnapshotService.class);
+  private static final String JOB = "trend-snapshots";
+  private static final int SNAPSHOT_VERSION = 1;
+
+  private static final TrendsResponse NO_SNAPSHOT = new TrendsResponse(null, null, List.of(), List.of(), List.of());
+
+  // Rollups already hold per-category monthly totals; ordered by user so each user's rows arrive together
+  private static final String ROLLUPS_QUERY = "select user_id, category_id, month_start, cast(total * 100 as bigint) "
+      + "from category_monthly_rollups where user_id between ? and ? and month_start between ? and ? "
+      + "order by user_id";
+  private static final String UPSERT_SNAPSHOT = "insert into trend_snapshots (user_id, as_of_month, computed_at, payload) "
+      + "values (?, ?, now(), ?) on conflict (user_id) do update "
+      + "set as_of_month = excluded.as_of_month, computed_at = excluded.computed_at, payload = excluded.payload";
+  // Users with no spending left in the window keep no snapshot
+  private static final String DELETE_STALE = "delete from trend_snapshots "
+      + "where user_id between ? and ? and as_of_month < ?";
+  private static final String FIND_SNAPSHOT = "select as_of_month, computed_at, payload from trend_snapshots where user_id = ?";
+
+  private static final String FIND_RUN = "select as_of_month, next_user_id, completed_at is not null "
+      + "from trend_snapshot_runs where run_date = ?";
+  private static final String START_RUN = "insert into trend_snapshot_runs (run_date, as_of_month) values (?, ?) "
+      + "on conflict (run_date) do nothing";
+  private static final String ADVANCE_RUN = "update trend_snapshot_runs set next_user_id = ? "
+      + "where run_date = ? and next_user_id < ?";
+  private static final String COMPLETE_RUN = "update trend_snapshot_runs set completed_at = now() where run_date = ?";
+
+  private final JdbcTemplate jdbcTemplate;
+  private final TransactionTemplate transactionTemplate;
+  private final UserAccountRepository userRepository;
+  private final UserService userService;
+  private final DictionaryCache dictionary;
+  private final JobLock jobLock;
+  private final TaskExecutor runExecutor;
+
+  @Value("${app.trends.months:12}")
+  private int months;
+
+  @Value("${app.trends.movers:5}")
+  private int movers;
+
+  @Value("${app.trends.chunk-size:500}")
+  private int chunkSize;
+
+  @Value("${app.trends.parallelism:2}")
+  private int parallelism;
+
+  @Value("${app.trends.lock-ttl:10m}")
+  private Duration lockTtl;
+
+  @Value("${app.trends.resume-on-startup:true}")
+  private boolean resumeOnStartup;
+
+  public TrendSnapshotService(
+      DataSource dataSource,
+      PlatformTransactionManager transactionManager,
+      UserAccountRepository userRepository,
+      UserService userService,
+      DictionaryCache dictionary,
+      JobLock jobLock,
+      @Qualifier("applicationTaskExecutor") TaskExecutor runExecutor,
+      @Value("${app.trends.fetch-size:1000}") int fetchSize) {
+    this.jdbcTemplate = new JdbcTemplate(dataSource);
+    this.jdbcTemplate.setFetchSize(fetchSize);
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+    this.userRepository = userRepository;
+    this.userService = userService;
+    this.dictionary = dictionary;
+    this.jobLock = jobLock;
+    this.runExecutor = runExecutor;
+  }
+
+  @EventListener(ApplicationReadyEvent.class)
+  public void resumeOnStartup() {
+    if (resumeOnStartup) {
+      runInBackground(true);
+    }
+  }
+
+  @Scheduled(cron = "${app.trends.cron:-}")
+  public void scheduledRun() {
+    runInBackground(false);
+  }
+
+  private void runInBackground(boolean resumeOnly) {
+    runExecutor.execute(() -> {
+      try {
+        run(resumeOnly);
+      } catch (RuntimeException ex) {
+        logger.error("Trend snapshot run failed", ex);
+      }
+    });
+  }
+
+  /**
+   * Runs (or resumes) today's snapshot run unless another replica holds the lock or it has
+   * already completed. With {@code resumeOnly} a run is only picked up if one was started today.
+   *
+   * @return snapshots written by this call
+   */
+  public int run(boolean resumeOnly) {
+    String token = jobLock.tryAcquire(JOB, lockTtl);
+    if (token == null) {
+      logger.info("Trend snapshots are running elsewhere (or Redis is down), skipping");
+      return 0;
+    }
+    try {
+      LocalDate today = LocalDate.now();
+      Run run = findRun(today);
+      if (run == null) {
+        if (resumeOnly) {
+          return 0;
+        }
+        jdbcTemplate.update(START_RUN, today, today.withDayOfMonth(1).minusMonths(1));
+        run = findRun(today);
+      }
+      if (run == null || run.completed()) {
+        return 0;
+      }
+      if (run.nextUserId() > 1) {
+        logger.info("Resuming trend snapshots for {} from user {}", today, run.nextUserId());
+      }
+      return snapshotUsers(today, run, token);
+    } finally {
+      jobLock.release(JOB, token);
+    }
+  }
+
+  private Run findRun(LocalDate runDate) {
+    List<Run> runs = jdbcTemplate.query(FIND_RUN,
+        (row, rowNum) -> new Run(row.getObject(1, LocalDate.class), row.getLong(2), row.getBoolean(3)), runDate);
+    return runs.isEmpty() ? null : runs.get(0);
+  }
+
+  private int snapshotUsers(LocalDate runDate, Run run, String token) {
+    long maxUserId = userRepository.findMaxId();
+    long started = System.nanoTime();
+    int written = 0;
+    ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, parallelism));
+    List<Future<Integer>> chunks = new CopyOnWriteArrayList<>();
+    AtomicBoolean lockLost = new AtomicBoolean();
+    // Renewed on a timer rather than per finished chunk, so one slow chunk can't outlive the TTL
+    // and a lost lock stops the run within a third of it
+    ScheduledExecutorService renewer = Executors.newSingleThreadScheduledExecutor();
+    long renewMillis = Math.max(1, lockTtl.toMillis() / 3);
+    renewer.scheduleWithFixedDelay(() -> {
+      if (!jobLock.extend(JOB, token, lockTtl)) {
+        lockLost.set(true);
+        chunks.forEach(chunk -> chunk.cancel(true));
+        renewer.shutdown();
+      }
+    }, renewMillis, renewMillis, TimeUnit.MILLISECONDS);
+    try {
+      List<Long> chunkEnds = new ArrayList<>();
+      for (long from = run.nextUserId(); from <= maxUserId; from += chunkSize) {
+        long chunkFrom = from;
+        long chunkTo = Math.min(from + chunkSize - 1, maxUserId);
+        chunks.add(executor.submit(() -> snapshotRange(chunkFrom, chunkTo, run.asOfMonth())));
+        chunkEnds.add(chunkTo);
+      }
+      // In submission order, so the recorded progress never skips a range that is still running
+      for (int i = 0; i < chunks.size(); i++) {
+        written += chunks.get(i).get();
+        if (lockLost.get()) {
+          break;
+        }
+        long next = chunkEnds.get(i) + 1;
+        jdbcTemplate.update(ADVANCE_RUN, next, runDate, next);
+      }
+      if (lockLost.get()) {
+        throw new IllegalStateException("Lost the trend snapshot lock");
+      }
+      jdbcTemplate.update(COMPLETE_RUN, runDate);
+    } catch (CancellationException ex) {
+      throw new IllegalStateException("Lost the trend snapshot lock", ex);
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Trend snapshots interrupted", ex);
+    } catch (ExecutionException ex) {
+      throw new IllegalStateException("Trend snapshots failed", ex.getCause());
+    } finally {
+      renewer.shutdownNow();
+      executor.shutdownNow();
+    }
+
+    logger.info("Wrote {} trend snapshots as of {} for users {}..{} in {} ms",
+        written, run.asOfMonth(), run.nextUserId(), maxUserId, (System.nanoTime() - started) / 1_000_000);
+    return written;
+  }
+
+  /** Computes and stores the snapshots of one user-id range in one transaction. */
+  public int snapshotRange(long fromUserId, long toUserId, LocalDate asOfMonth) {
+    LocalDate firstMonth = asOfMonth.minusMonths(months + MonthlyTrends.LOOKBACK_MONTHS - 1);
+    MonthlyTrends trends = new MonthlyTrends(months);
+    List<Object[]> snapshots = new ArrayList<>();
+    long[] currentUser = {0};
+
+    transactionTemplate.executeWithoutResult(status -> {
+      jdbcTemplate.query(ROLLUPS_QUERY, (RowCallbackHandler) row -> {
+        long userId = row.getLong(1);
+        if (userId != currentUser[0]) {
+          if (!trends.isEmpty()) {
+            snapshots.add(new Object[] {currentUser[0], asOfMonth, encode(trends)});
+          }
+          trends.reset();
+          currentUser[0] = userId;
+        }
+        int month = (int) ChronoUnit.MONTHS.between(firstMonth, row.getObject(3, LocalDate.class));
+        trends.add(row.getInt(2), month, row.getLong(4));
+      }, fromUserId, toUserId, firstMonth, asOfMonth);
+      if (!trends.isEmpty()) {
+        snapshots.add(new Object[] {currentUser[0], asOfMonth, encode(trends)});
+      }
+
+      jdbcTemplate.batchUpdate(UPSERT_SNAPSHOT, snapshots);
+      jdbcTemplate.update(DELETE_STALE, fromUserId, toUserId, asOfMonth);
+    });
+    return snapshots.size();
+  }
+
+  // Version, months, then per category its id, monthly totals and rolling averages in cents,
+  // then the movers as category id, last month's total and the previous average
+  private byte[] encode(MonthlyTrends trends) {
+    int[] categoryIds = trends.categoryIds();
+    CodecOutput out = new CodecOutput(8 + categoryIds.length * trends.months() * 6);
+    out.writeByte(SNAPSHOT_VERSION);
+    out.writeVarInt(trends.months());
+    out.writeVarInt(categoryIds.length);
+    for (int categoryId : categoryIds) {
+      out.writeVarInt(categoryId);
+      for (int month = 0; month < trends.months(); month++) {
+        out.writeSignedVarLong(trends.total(categoryId, month));
+      }
+      for (int month = 0; month < trends.months(); month++) {
+        out.writeSignedVarLong(trends.rollingAverage(categoryId, month));
+      }
+    }
+    int[] moverIds = trends.biggestMovers(movers);
+    out.writeVarInt(moverIds.length);
+    for (int categoryId : moverIds) {
+      out.writeVarInt(categoryId);
+      out.writeSignedVarLong(trends.total(categoryId, trends.months() - 1));
+      out.writeSignedVarLong(trends.previousAverage(categoryId));
+    }
+    return out.toByteArray();
+  }
+
+  /** The user's latest snapshot; empty if no run has covered them yet. */
+  @Transactional(readOnly = true)
+  public TrendsResponse getTrends(String firebaseUid) {
+    Optional<Long> userId = userService.findUserId(firebaseUid);
+    if (userId.isEmpty()) {
+      return NO_SNAPSHOT;
+    }
+    List<TrendsResponse> snapshots = jdbcTemplate.query(FIND_SNAPSHOT,
+        (row, rowNum) -> decode(row.getObject(1, LocalDate.class), row.getObject(2, LocalDateTime.class), row.getBytes(3)),
+        userId.get());
+    return snapshots.isEmpty() ? NO_SNAPSHOT : snapshots.get(0);
+  }
+
+  private TrendsResponse decode(LocalDate asOfMonth, LocalDateTime computedAt, byte[] payload) {
+    CodecInput in = new CodecInput(payload);
+    if (in.readByte() != SNAPSHOT_VERSION) {
+      // Written by another release; the next run rewrites it
+      return NO_SNAPSHOT;
+    }
+    int monthCount = in.readVarInt();
+    List<LocalDate> reportedMonths = new ArrayList<>(monthCount);
+    for (int month = 0; month < monthCount; month++) {
+      reportedMonths.add(asOfMonth.minusMonths(monthCount - 1 - month));
+    }
+
+    int categoryCount = in.readVarInt();
+    List<CategoryTrendDto> categories = new ArrayList<>(categoryCount);
+    Map<Integer, String> names = new HashMap<>();
+    for (int i = 0; i < categoryCount; i++) {
+      int categoryId = in.readVarInt();
+      String name = dictionary.categoryName(categoryId);
+      names.put(categoryId, name);
+      categories.add(new CategoryTrendDto(name, readAmounts(in, monthCount), readAmounts(in, monthCount)));
+    }
+    categories.sort(Comparator.comparing(CategoryTrendDto::category));
+
+    int moverCount = in.readVarInt();
+    List<TrendMoverDto> biggestMovers = new ArrayList<>(moverCount);
+    for (int i = 0; i < moverCount; i++) {
+      String name = names.get(in.readVarInt());
+      long totalCents = in.readSignedVarLong();
+      long previousAverageCents = in.readSignedVarLong();
+      biggestMovers.add(new TrendMoverDto(name, Cents.toAmount(totalCents), Cents.toAmount(previousAverageCents),
+          Cents.toAmount(totalCents - previousAverageCents)));
+    }
+    return new TrendsResponse(asOfMonth, computedAt, reportedMonths, categories, biggestMovers);
+  }
+
+  private static List<BigDecimal> readAmounts(CodecInput in, int count) {
+    List<BigDecimal> amounts = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      amounts.add(Cents.toAmount(in.readSignedVarLong()));
+    }
+    return amounts;
+  }
+
+  private record Run(LocalDate asOfMonth, long nextUserId, boolean completed) {}
+}
@@ -0,0 +1,93 @@
+package com.spendingapp.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Firebase uid to {@code users.id} mapping, kept in process and in Redis so replicas share what
+ * any of them has resolved. A user's id never changes once assigned, so entries are never
+ * invalidated; they only age out.
+ *
+ * <p>As in {@link DictionaryCache}, a mapping learned inside a transaction is only remembered
+ * once that transaction commits, so a rolled-back registration leaves nothing behind.
+ */
+@Component
+public class UserIdCache {
+  private static final Logger logger = LoggerFactory.getLogger(UserIdCache.class);
+  private static final String KEY_PREFIX = "user-id:";
+
+  private final Cache<String, Long> local;
+  private final StringRedisTemplate redisTemplate;
+  private final Duration redisTtl;
+  private final Counter localHits;
+  private final Counter redisHits;
+  private final Counter misses;
+
+  public UserIdCache(
+      StringRedisTemplate redisTemplate,
+      @Value("${app.user-id-cache.maximum-size:100000}") long maximumSize,
+      @Value("${app.user-id-cache.redis-ttl:30d}") Duration redisTtl,
+      MeterRegistry meterRegistry) {
+    this.local = Caffeine.newBuilder().maximumSize(maximumSize).build();
+    this.redisTemplate = redisTemplate;
+    this.redisTtl = redisTtl;
+    this.localHits = Counter.builder("user.id.cache").tag("result", "local").register(meterRegistry);
+    this.redisHits = Counter.builder("user.id.cache").tag("result", "redis").register(meterRegistry);
+    this.misses = Counter.builder("user.id.cache").tag("result", "miss").register(meterRegistry);
+  }
+
+  /** The cached id, or null if neither tier has it (or Redis is unreachable). */
+  public Long get(String firebaseUid) {
+    Long id = local.getIfPresent(firebaseUid);
+    if (id != null) {
+      localHits.increment();
+      return id;
+    }
+    try {
+      String cached = redisTemplate.opsForValue().get(KEY_PREFIX + firebaseUid);
+      if (cached != null) {
+        id = Long.valueOf(cached);
+        local.put(firebaseUid, id);
+        redisHits.increment();
+        return id;
+      }
+    } catch (RuntimeException ex) {
+      logger.warn("Could not read user id for {} from Redis: {}", firebaseUid, ex.getMessage());
+    }
+    misses.increment();
+    return null;
+  }
+
+  /** Caches an id read from or written to the database, after commit if a transaction is active. */
+  public void put(String firebaseUid, long id) {
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      remember(firebaseUid, id);
+      return;
+    }
+    TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+      @Override
+      public void afterCommit() {
+        remember(firebaseUid, id);
+      }
+    });
+  }
+
+  private void remember(String firebaseUid, long id) {
+    local.put(firebaseUid, id);
+    try {
+      redisTemplate.opsForValue().set(KEY_PREFIX + firebaseUid, Long.toString(id), redisTtl);
+    } catch (RuntimeException ex) {
+      logger.warn("Could not write user id for {} to Redis: {}", firebaseUid, ex.getMessage());
+    }
+  }
+}
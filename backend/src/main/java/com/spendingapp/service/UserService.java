@@ -1,6 +1,5 @@
 package com.spendingapp.service;
 
-import com.spendingapp.model.UserAccount;
 import com.spendingapp.repository.UserAccountRepository;
 import java.util.Optional;
 import org.springframework.stereotype.Service;
@@ -9,26 +8,52 @@ import org.springframework.transaction.annotation.Transactional;
 @Service
 public class UserService {
   private final UserAccountRepository userRepository;
+  private final UserIdCache userIds;
 
-  public UserService(UserAccountRepository userRepository) {
+  public UserService(UserAccountRepository userRepository, UserIdCache userIds) {
     this.userRepository = userRepository;
+    this.userIds = userIds;
   }
 
   @Transactional
-  public UserAccount registerUser(String firebaseUid, String email) {
-    // Check if user already exists
-    Optional<UserAccount> existingUser = userRepository.findByFirebaseUid(firebaseUid);
-    if (existingUser.isPresent()) {
+  public long registerUser(String firebaseUid, String email) {
+    // Create new user account with blank slate (no sample data); a single insert, so two
+    // concurrent registrations can't both pass an existence check
+    Long id = userRepository.insertIfNew(firebaseUid, email);
+    if (id == null) {
       throw new IllegalStateException("User already exists");
     }
+    userIds.put(firebaseUid, id);
+    return id;
+  }
 
-    // Create new user account with blank slate (no sample data)
-    UserAccount user = new UserAccount();
-    user.setFirebaseUid(firebaseUid);
-    user.setEmail(email);
-    userRepository.save(user);
+  /**
+   * The user's id, without registering them: reads for an unknown user are simply empty. Not
+   * transactional, so a cache hit never takes a connection.
+   */
+  public Optional<Long> findUserId(String firebaseUid) {
+    Long cached = userIds.get(firebaseUid);
+    if (cached != null) {
+      return Optional.of(cached);
+    }
+    Optional<Long> id = userRepository.findIdByFirebaseUid(firebaseUid);
+    id.ifPresent(found -> userIds.put(firebaseUid, found));
+    return id;
+  }
 
-    return user;
+  /** The user's id, auto-registering them on first write. */
+  @Transactional
+  public long resolveOrAutoRegister(String firebaseUid) {
+    Long cached = userIds.get(firebaseUid);
+    if (cached != null) {
+      return cached;
+    }
+    // Every cache miss lands here, and after a restart nearly all of them are for existing
+    // users. Going straight to the upsert would rewrite their row (leaving a dead tuple) and
+    // hold its lock until the caller's write commits, queueing that user's other writes.
+    Long id = userRepository.findIdByFirebaseUid(firebaseUid)
+        .orElseGet(() -> userRepository.insertIfAbsent(firebaseUid, firebaseUid + "@auto-registered.local")); // Placeholder email
+    userIds.put(firebaseUid, id);
+    return id;
   }
 }
-
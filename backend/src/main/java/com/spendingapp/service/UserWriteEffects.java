@@ -0,0 +1,68 @@
+package com.spendingapp.service;
+
+import com.spendingapp.datasource.ReadYourWrites;
+import com.spendingapp.live.LiveUpdates;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * What every path that writes a user's transactions does once the write has committed: evict
+ * their cached insights, pin their reads to the primary, bump their data version and, for
+ * writes that don't publish their own update, tell their streams to reload.
+ *
+ * <p>The pin comes before the bump. A read that sees the new version then can't be served from
+ * a replica that hasn't replayed the write yet and get cached, or ETagged, under that version.
+ */
+@Component
+public class UserWriteEffects {
+  private final CacheManager cacheManager;
+  private final ReadYourWrites readYourWrites;
+  private final DataVersionService dataVersions;
+  private final LiveUpdates liveUpdates;
+
+  public UserWriteEffects(
+      CacheManager cacheManager,
+      ReadYourWrites readYourWrites,
+      DataVersionService dataVersions,
+      LiveUpdates liveUpdates) {
+    this.cacheManager = cacheManager;
+    this.readYourWrites = readYourWrites;
+    this.dataVersions = dataVersions;
+    this.liveUpdates = liveUpdates;
+  }
+
+  /** For writes that have already committed, such as batches; streams are told to reload. */
+  public void afterUserWrite(String firebaseUid) {
+    invalidate(firebaseUid);
+    liveUpdates.publishReload(firebaseUid);
+  }
+
+  /**
+   * For a write in the current transaction, which publishes its own update: runs once the
+   * transaction commits, or immediately when none is active.
+   */
+  public void afterUserWriteCommits(String firebaseUid) {
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      invalidate(firebaseUid);
+      return;
+    }
+    TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+      @Override
+      public void afterCommit() {
+        invalidate(firebaseUid);
+      }
+    });
+  }
+
+  private void invalidate(String firebaseUid) {
+    Cache insights = cacheManager.getCache("insights");
+    if (insights != null) {
+      insights.evict(firebaseUid);
+    }
+    readYourWrites.pin(firebaseUid);
+    dataVersions.bump(firebaseUid);
+  }
+}
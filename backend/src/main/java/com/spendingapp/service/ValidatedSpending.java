@@ -0,0 +1,6 @@
+package com.spendingapp.service;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+public record ValidatedSpending(BigDecimal amount, String category, String merchant, LocalDate transactionDate) {}
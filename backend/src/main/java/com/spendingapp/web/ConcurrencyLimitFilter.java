@@ -0,0 +1,78 @@
+package com.spendingapp.web;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+/**
+ * Caps how many requests are in flight when requests run on virtual threads. Tomcat's platform
+ * thread pool used to be that cap; without it a burst would start thousands of requests that
+ * all queue on the few database connections and time out together. Requests over the cap wait
+ * up to {@code acquire-timeout} for a slot and are then answered with 503.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@ConditionalOnProperty("spring.threads.virtual.enabled")
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+  private final Semaphore permits;
+  private final long acquireTimeoutNanos;
+  private final Counter rejections;
+
+  public ConcurrencyLimitFilter(
+      @Value("${app.virtual-threads.max-concurrent-requests:1000}") int maxConcurrentRequests,
+      @Value("${app.virtual-threads.acquire-timeout:1s}") Duration acquireTimeout,
+      MeterRegistry meterRegistry) {
+    this.permits = new Semaphore(maxConcurrentRequests, true);
+    this.acquireTimeoutNanos = acquireTimeout.toNanos();
+    this.rejections = Counter.builder("http.server.requests.rejected")
+        .description("Requests shed because max-concurrent-requests were already in flight")
+        .register(meterRegistry);
+    Gauge.builder("http.server.requests.in.flight", permits, p -> maxConcurrentRequests - p.availablePermits())
+        .register(meterRegistry);
+  }
+
+  @Override
+  protected boolean shouldNotFilter(HttpServletRequest request) {
+    // Health checks must keep answering while the backend is saturated
+    String path = request.getRequestURI();
+    return path.startsWith("/actuator/") || path.equals("/health");
+  }
+
+  @Override
+  protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+      throws ServletException, IOException {
+    boolean acquired;
+    try {
+      acquired = permits.tryAcquire(acquireTimeoutNanos, TimeUnit.NANOSECONDS);
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      acquired = false;
+    }
+    if (!acquired) {
+      rejections.increment();
+      response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+      response.sendError(HttpServletResponse.SC_SERVICE_UNAVAILABLE, "Server busy");
+      return;
+    }
+    try {
+      filterChain.doFilter(request, response);
+    } finally {
+      permits.release();
+    }
+  }
+}
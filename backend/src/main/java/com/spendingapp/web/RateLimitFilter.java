@@ -0,0 +1,87 @@
+package com.spendingapp.web;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+/**
+ * Rate limits each authenticated user across all replicas, with separate budgets for reads
+ * (GET/HEAD) and writes. Runs right after {@code JwtAuthFilter} in the security chain, so the
+ * key is the Firebase uid rather than the client address; unauthenticated requests are left to
+ * nginx's per-IP limit. Requests over budget get 429 with {@code Retry-After}.
+ */
+@Component
+public class RateLimitFilter extends OncePerRequestFilter {
+  private final UidRateLimiter limiter;
+  private final boolean enabled;
+  private final UidRateLimiter.Budget readBudget;
+  private final UidRateLimiter.Budget writeBudget;
+  private final Counter readsThrottled;
+  private final Counter writesThrottled;
+
+  public RateLimitFilter(
+      UidRateLimiter limiter,
+      @Value("${app.rate-limit.enabled:true}") boolean enabled,
+      @Value("${app.rate-limit.read.rate:20}") double readRate,
+      @Value("${app.rate-limit.read.burst:40}") int readBurst,
+      @Value("${app.rate-limit.read.lease-size:5}") int readLeaseSize,
+      @Value("${app.rate-limit.write.rate:5}") double writeRate,
+      @Value("${app.rate-limit.write.burst:10}") int writeBurst,
+      @Value("${app.rate-limit.write.lease-size:2}") int writeLeaseSize,
+      MeterRegistry meterRegistry) {
+    this.limiter = limiter;
+    this.enabled = enabled;
+    this.readBudget = new UidRateLimiter.Budget("read", readRate, readBurst, readLeaseSize);
+    this.writeBudget = new UidRateLimiter.Budget("write", writeRate, writeBurst, writeLeaseSize);
+    this.readsThrottled = throttledCounter(meterRegistry, "read");
+    this.writesThrottled = throttledCounter(meterRegistry, "write");
+  }
+
+  private static Counter throttledCounter(MeterRegistry meterRegistry, String budget) {
+    return Counter.builder("http.server.requests.throttled")
+        .description("Requests rejected because the user's rate limit budget was spent")
+        .tag("budget", budget)
+        .register(meterRegistry);
+  }
+
+  @Override
+  protected boolean shouldNotFilter(HttpServletRequest request) {
+    String path = request.getRequestURI();
+    return !enabled
+        || HttpMethod.OPTIONS.matches(request.getMethod())
+        || path.startsWith("/actuator/")
+        || path.equals("/health");
+  }
+
+  @Override
+  protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+      throws ServletException, IOException {
+    Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+    if (auth == null || !auth.isAuthenticated() || auth.getName() == null) {
+      filterChain.doFilter(request, response);
+      return;
+    }
+
+    boolean read = HttpMethod.GET.matches(request.getMethod()) || HttpMethod.HEAD.matches(request.getMethod());
+    UidRateLimiter.Decision decision = limiter.tryAcquire(auth.getName(), read ? readBudget : writeBudget);
+    if (!decision.allowed()) {
+      (read ? readsThrottled : writesThrottled).increment();
+      response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(Math.max(1, (decision.retryAfterMillis() + 999) / 1000)));
+      response.sendError(HttpStatus.TOO_MANY_REQUESTS.value(), "Rate limit exceeded");
+      return;
+    }
+    filterChain.doFilter(request, response);
+  }
+}
@@ -0,0 +1,193 @@
+package com.spendingapp.web;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+/**
+ * Per-uid token buckets whose budget is shared by every replica through Redis, without a Redis
+ * round trip per request.
+ *
+ * <p>Each uid's global bucket lives in Redis and is refilled and drawn from by one Lua script,
+ * timed by the Redis clock so replicas' clocks don't matter. A replica leases up to
+ * {@code leaseSize} tokens at a time into a local bucket and serves requests from it until the
+ * lease is used up or expires. When the global bucket is empty, the local bucket remembers that
+ * until it will have refilled, so a client hammering past its limit costs no Redis calls either.
+ * Local buckets are guarded by striped locks, so different users rarely contend.
+ *
+ * <p>While Redis is unreachable each replica enforces the budget on its own, at the same rate.
+ */
+@Component
+public class UidRateLimiter {
+  private static final Logger logger = LoggerFactory.getLogger(UidRateLimiter.class);
+  private static final String KEY_PREFIX = "rate-limit:";
+
+  static final Decision ALLOWED = new Decision(true, 0);
+
+  // KEYS[1] bucket; ARGV: rate per second, burst, tokens wanted. Returns {granted, ms until one refills}.
+  // Tokens are kept fractional so slow rates still refill between calls.
+  @SuppressWarnings({"rawtypes", "unchecked"})
+  private static final RedisScript<List> LEASE = new DefaultRedisScript<>(
+      "local rate = tonumber(ARGV[1]) "
+          + "local burst = tonumber(ARGV[2]) "
+          + "local time = redis.call('TIME') "
+          + "local now = tonumber(time[1]) * 1000 + math.floor(tonumber(time[2]) / 1000) "
+          + "local state = redis.call('HMGET', KEYS[1], 'tokens', 'at') "
+          + "local tokens = tonumber(state[1]) or burst "
+          + "local at = tonumber(state[2]) or now "
+          + "tokens = math.min(burst, tokens + math.max(0, now - at) * rate / 1000) "
+          + "local granted = math.min(tonumber(ARGV[3]), math.floor(tokens)) "
+          + "tokens = tokens - granted "
+          + "redis.call('HSET', KEYS[1], 'tokens', tostring(tokens), 'at', now) "
+          + "redis.call('PEXPIRE', KEYS[1], math.ceil(burst * 1000 / rate) + 1000) "
+          + "local wait = 0 "
+          + "if granted == 0 then wait = math.ceil((1 - tokens) * 1000 / rate) end "
+          + "return {granted, wait}",
+      List.class);
+
+  /** A named rate limit: {@code ratePerSecond} sustained, {@code burst} at once. */
+  public record Budget(String name, double ratePerSecond, int burst, int leaseSize) {
+    public Budget {
+      if (ratePerSecond <= 0 || burst < 1 || leaseSize < 1) {
+        throw new IllegalArgumentException("Rate limit " + name + " needs a positive rate, burst and lease size");
+      }
+      leaseSize = Math.min(leaseSize, burst);
+    }
+  }
+
+  public record Decision(boolean allowed, long retryAfterMillis) {}
+
+  private final StringRedisTemplate redisTemplate;
+  private final long leaseTtlNanos;
+  private final long redisRetryNanos;
+  private final ReentrantLock[] stripes;
+  private final Cache<String, LocalBucket> buckets;
+  private final Counter leases;
+  private final Counter redisFailures;
+
+  // Until then requests skip Redis and use the local fallback buckets
+  private volatile long redisDownUntil;
+  private volatile boolean redisDown;
+
+  public UidRateLimiter(
+      StringRedisTemplate redisTemplate,
+      @Value("${app.rate-limit.lease-ttl:2s}") Duration leaseTtl,
+      @Value("${app.rate-limit.redis-retry-interval:1s}") Duration redisRetryInterval,
+      @Value("${app.rate-limit.stripes:64}") int stripeCount,
+      @Value("${app.rate-limit.max-tracked-users:100000}") long maxTrackedUsers,
+      MeterRegistry meterRegistry) {
+    this.redisTemplate = redisTemplate;
+    this.leaseTtlNanos = leaseTtl.toNanos();
+    this.redisRetryNanos = redisRetryInterval.toNanos();
+    this.stripes = new ReentrantLock[Math.max(1, stripeCount)];
+    for (int i = 0; i < stripes.length; i++) {
+      stripes[i] = new ReentrantLock();
+    }
+    // Idle buckets hold nothing worth keeping: their lease has expired and Redis has the budget
+    this.buckets = Caffeine.newBuilder()
+        .maximumSize(maxTrackedUsers)
+        .expireAfterAccess(leaseTtl.plus(Duration.ofMinutes(1)))
+        .build();
+    this.leases = Counter.builder("rate.limit.leases")
+        .description("Token leases taken from the shared Redis budget")
+        .register(meterRegistry);
+    this.redisFailures = Counter.builder("rate.limit.redis.failures")
+        .description("Lease attempts that fell back to per-replica limiting")
+        .register(meterRegistry);
+  }
+
+  public Decision tryAcquire(String uid, Budget budget) {
+    String key = budget.name() + ":" + uid;
+    ReentrantLock lock = stripes[Math.floorMod(key.hashCode(), stripes.length)];
+    lock.lock();
+    try {
+      LocalBucket bucket = buckets.get(key, k -> new LocalBucket());
+      long now = System.nanoTime();
+      if (bucket.leased > 0 && now - bucket.leaseExpiresAt < 0) {
+        bucket.leased--;
+        return ALLOWED;
+      }
+      if (bucket.empty && now - bucket.emptyUntil < 0) {
+        return new Decision(false, nanosToMillisCeil(bucket.emptyUntil - now));
+      }
+      bucket.leased = 0;
+      bucket.empty = false;
+
+      if (redisDown && now - redisDownUntil < 0) {
+        return bucket.takeLocally(now, budget);
+      }
+      List<?> lease;
+      try {
+        lease = redisTemplate.execute(LEASE, List.of(KEY_PREFIX + key),
+            Double.toString(budget.ratePerSecond()), Integer.toString(budget.burst()), Integer.toString(budget.leaseSize()));
+        redisDown = false;
+      } catch (RuntimeException ex) {
+        redisFailures.increment();
+        if (!redisDown) {
+          logger.warn("Rate limit budget unavailable in Redis, limiting per replica: {}", ex.getMessage());
+        }
+        redisDownUntil = now + redisRetryNanos;
+        redisDown = true;
+        return bucket.takeLocally(now, budget);
+      }
+
+      long granted = ((Number) lease.get(0)).longValue();
+      if (granted > 0) {
+        leases.increment();
+        bucket.leased = granted - 1;
+        bucket.leaseExpiresAt = now + leaseTtlNanos;
+        return ALLOWED;
+      }
+      long waitMillis = Math.max(1, ((Number) lease.get(1)).longValue());
+      bucket.empty = true;
+      bucket.emptyUntil = now + Duration.ofMillis(waitMillis).toNanos();
+      return new Decision(false, waitMillis);
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private static long nanosToMillisCeil(long nanos) {
+    return Math.max(1, (nanos + 999_999) / 1_000_000);
+  }
+
+  // Guarded by its stripe's lock
+  private static final class LocalBucket {
+    private long leased;
+    private long leaseExpiresAt;
+    private boolean empty;
+    private long emptyUntil;
+
+    // Per-replica bucket used only while Redis is unreachable
+    private boolean fallbackStarted;
+    private double fallbackTokens;
+    private long fallbackRefilledAt;
+
+    Decision takeLocally(long now, Budget budget) {
+      if (!fallbackStarted) {
+        fallbackStarted = true;
+        fallbackTokens = budget.burst();
+      } else {
+        double refill = (now - fallbackRefilledAt) / 1e9 * budget.ratePerSecond();
+        fallbackTokens = Math.min(budget.burst(), fallbackTokens + refill);
+      }
+      fallbackRefilledAt = now;
+      if (fallbackTokens >= 1) {
+        fallbackTokens--;
+        return ALLOWED;
+      }
+      return new Decision(false, (long) Math.ceil((1 - fallbackTokens) * 1000 / budget.ratePerSecond()));
+    }
+  }
+}
@@ -0,0 +1,32 @@
+-- Schema as it stood before versioned migrations (ddl-auto plus infra/db/init.sql).
+-- Databases that already have these tables are baselined at this version instead of
+-- running it (spring.flyway.baseline-on-migrate).
+
+CREATE TABLE users (
+  id BIGSERIAL PRIMARY KEY,
+  firebase_uid VARCHAR(255) UNIQUE NOT NULL,
+  email VARCHAR(255) NOT NULL,
+  created_at TIMESTAMP NOT NULL DEFAULT NOW()
+);
+
+CREATE TABLE transactions (
+  id BIGSERIAL PRIMARY KEY,
+  user_id BIGINT NOT NULL REFERENCES users(id),
+  amount NUMERIC(12, 2) NOT NULL,
+  category VARCHAR(255) NOT NULL,
+  merchant VARCHAR(255) NOT NULL,
+  transaction_date DATE NOT NULL,
+  created_at TIMESTAMP NOT NULL DEFAULT NOW()
+);
+
+-- Hibernate reserves ids in blocks of 50 (pooled optimizer) so inserts can be batched.
+ALTER SEQUENCE transactions_id_seq INCREMENT BY 50;
+
+CREATE TABLE category_monthly_rollups (
+  user_id BIGINT NOT NULL REFERENCES users(id),
+  category VARCHAR(255) NOT NULL,
+  month_start DATE NOT NULL,
+  total NUMERIC(14, 2) NOT NULL,
+  tx_count BIGINT NOT NULL,
+  PRIMARY KEY (user_id, category, month_start)
+);
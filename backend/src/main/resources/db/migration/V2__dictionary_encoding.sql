@@ -0,0 +1,54 @@
+-- Moves transactions and rollups from inline category/merchant strings to ids in
+-- the categories/merchants dictionaries.
+
+CREATE TABLE categories (
+  id SERIAL PRIMARY KEY,
+  name VARCHAR(255) UNIQUE NOT NULL
+);
+
+CREATE TABLE merchants (
+  id SERIAL PRIMARY KEY,
+  name VARCHAR(255) UNIQUE NOT NULL
+);
+
+INSERT INTO categories (name)
+SELECT DISTINCT category FROM transactions
+ON CONFLICT DO NOTHING;
+
+INSERT INTO merchants (name)
+SELECT DISTINCT merchant FROM transactions
+ON CONFLICT DO NOTHING;
+
+ALTER TABLE transactions
+  ADD COLUMN category_id INTEGER REFERENCES categories(id),
+  ADD COLUMN merchant_id INTEGER REFERENCES merchants(id);
+
+-- One pass over the table rather than one UPDATE per column.
+UPDATE transactions t
+SET category_id = c.id, merchant_id = m.id
+FROM categories c, merchants m
+WHERE c.name = t.category AND m.name = t.merchant;
+
+ALTER TABLE transactions
+  ALTER COLUMN category_id SET NOT NULL,
+  ALTER COLUMN merchant_id SET NOT NULL,
+  DROP COLUMN category,
+  DROP COLUMN merchant;
+
+-- Rollups are derived data, so rebuild them keyed by category_id. Databases baselined from
+-- a ddl-auto schema never had the V1 rollup table.
+DROP TABLE IF EXISTS category_monthly_rollups;
+
+CREATE TABLE category_monthly_rollups (
+  user_id BIGINT NOT NULL REFERENCES users(id),
+  category_id INTEGER NOT NULL REFERENCES categories(id),
+  month_start DATE NOT NULL,
+  total NUMERIC(14, 2) NOT NULL,
+  tx_count BIGINT NOT NULL,
+  PRIMARY KEY (user_id, category_id, month_start)
+);
+
+INSERT INTO category_monthly_rollups (user_id, category_id, month_start, total, tx_count)
+SELECT user_id, category_id, DATE_TRUNC('month', transaction_date)::DATE, SUM(amount), COUNT(*)
+FROM transactions
+GROUP BY user_id, category_id, DATE_TRUNC('month', transaction_date)::DATE;
@@ -0,0 +1,132 @@
+-- Range-partitions transactions by calendar month of transaction_date and adds covering
+-- indexes for the per-user list and aggregate queries. Those queries filter on user_id
+-- and a transaction_date range, so each one touches only the matching months'
+-- partitions and can be answered from the index without visiting the heap.
+
+ALTER TABLE transactions RENAME TO transactions_unpartitioned;
+ALTER TABLE transactions_unpartitioned RENAME CONSTRAINT transactions_pkey TO transactions_unpartitioned_pkey;
+
+-- The old id is a serial column (V1, init.sql) or an identity column (a ddl-auto schema
+-- baselined as V1); either way its sequence would be dropped with the old table. Detach the
+-- column from it and give the new table a standalone sequence, continuing after every id the
+-- old one handed out (Hibernate's pooled ids take the 50 values up to each nextval).
+DO $$
+DECLARE
+  old_sequence TEXT := pg_get_serial_sequence('transactions_unpartitioned', 'id');
+  last_id BIGINT := 0;
+BEGIN
+  IF old_sequence IS NOT NULL THEN
+    EXECUTE format('SELECT last_value FROM %s', old_sequence) INTO last_id;
+  END IF;
+  SELECT GREATEST(last_id, MAX(id), 1) INTO last_id FROM transactions_unpartitioned;
+
+  ALTER TABLE transactions_unpartitioned ALTER COLUMN id DROP IDENTITY IF EXISTS;
+  ALTER TABLE transactions_unpartitioned ALTER COLUMN id DROP DEFAULT;
+  IF old_sequence IS NOT NULL THEN
+    EXECUTE format('DROP SEQUENCE IF EXISTS %s', old_sequence);
+  END IF;
+
+  CREATE SEQUENCE transactions_id_seq INCREMENT BY 50;
+  PERFORM setval('transactions_id_seq', last_id);
+END
+$$;
+
+-- A partitioned table's primary key must include the partition key. Ids still come
+-- from the one sequence, so id alone stays unique.
+CREATE TABLE transactions (
+  id BIGINT NOT NULL DEFAULT nextval('transactions_id_seq'),
+  user_id BIGINT NOT NULL REFERENCES users(id),
+  amount NUMERIC(12, 2) NOT NULL,
+  category_id INTEGER NOT NULL REFERENCES categories(id),
+  merchant_id INTEGER NOT NULL REFERENCES merchants(id),
+  transaction_date DATE NOT NULL,
+  created_at TIMESTAMP NOT NULL DEFAULT NOW(),
+  PRIMARY KEY (id, transaction_date)
+) PARTITION BY RANGE (transaction_date);
+
+ALTER SEQUENCE transactions_id_seq OWNED BY transactions.id;
+
+-- Catches dates whose month has no partition yet (e.g. an imported statement from years
+-- ago) until maintain_transactions_partitions gives that month its own.
+CREATE TABLE transactions_default PARTITION OF transactions DEFAULT;
+
+-- Matches "where user_id = ? and transaction_date between ? and ? order by
+-- transaction_date desc, id desc"; INCLUDE carries the rest of the columns those
+-- queries read so they are index-only scans.
+CREATE INDEX transactions_user_date_idx
+  ON transactions (user_id, transaction_date DESC, id DESC)
+  INCLUDE (amount, category_id, merchant_id);
+
+-- Same for the insights query over the rollups.
+CREATE INDEX category_monthly_rollups_user_month_idx
+  ON category_monthly_rollups (user_id, month_start)
+  INCLUDE (category_id, total, tx_count);
+
+-- Creates the partition for the month containing month_start, moving that month's rows
+-- out of the default partition first. Returns false if the partition already exists.
+CREATE FUNCTION create_transactions_partition(month_start DATE) RETURNS BOOLEAN
+LANGUAGE plpgsql AS $$
+DECLARE
+  range_from DATE := date_trunc('month', month_start)::DATE;
+  range_to DATE := (date_trunc('month', month_start) + INTERVAL '1 month')::DATE;
+  partition_name TEXT := 'transactions_' || to_char(month_start, 'YYYY_MM');
+BEGIN
+  -- Replicas may run maintenance at the same time
+  PERFORM pg_advisory_xact_lock(hashtext('create_transactions_partition'));
+  IF to_regclass(partition_name) IS NOT NULL THEN
+    RETURN FALSE;
+  END IF;
+
+  -- Holds off inserts into the default partition until the new partition is attached,
+  -- so none can land in the range being moved
+  LOCK TABLE transactions_default IN EXCLUSIVE MODE;
+  EXECUTE format('CREATE TABLE %I (LIKE transactions INCLUDING DEFAULTS)', partition_name);
+  EXECUTE format(
+      'WITH moved AS (DELETE FROM transactions_default'
+      || ' WHERE transaction_date >= $1 AND transaction_date < $2 RETURNING *)'
+      || ' INSERT INTO %I SELECT * FROM moved', partition_name)
+    USING range_from, range_to;
+  EXECUTE format('ALTER TABLE transactions ATTACH PARTITION %I FOR VALUES FROM (%L) TO (%L)',
+      partition_name, range_from, range_to);
+  RETURN TRUE;
+END
+$$;
+
+-- Gives every month that has rows in the default partition its own partition, and makes
+-- sure the current month and the next months_ahead exist. Returns how many it created.
+CREATE FUNCTION maintain_transactions_partitions(months_ahead INTEGER) RETURNS INTEGER
+LANGUAGE plpgsql AS $$
+DECLARE
+  pending_month DATE;
+  created INTEGER := 0;
+BEGIN
+  FOR pending_month IN
+    SELECT DISTINCT date_trunc('month', transaction_date)::DATE FROM transactions_default
+    UNION
+    SELECT generate_series(
+        date_trunc('month', CURRENT_DATE),
+        date_trunc('month', CURRENT_DATE) + make_interval(months => months_ahead),
+        INTERVAL '1 month')::DATE
+    ORDER BY 1
+  LOOP
+    IF create_transactions_partition(pending_month) THEN
+      created := created + 1;
+    END IF;
+  END LOOP;
+  RETURN created;
+END
+$$;
+
+-- Partitions for the existing months first, so the copy routes rows straight to them
+SELECT create_transactions_partition(month)
+FROM (SELECT DISTINCT date_trunc('month', transaction_date)::DATE AS month FROM transactions_unpartitioned) months;
+
+INSERT INTO transactions (id, user_id, amount, category_id, merchant_id, transaction_date, created_at)
+SELECT id, user_id, amount, category_id, merchant_id, transaction_date, created_at
+FROM transactions_unpartitioned;
+
+DROP TABLE transactions_unpartitioned;
+
+SELECT maintain_transactions_partitions(3);
+
+ANALYZE transactions;
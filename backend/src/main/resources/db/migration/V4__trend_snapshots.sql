@@ -0,0 +1,20 @@
+-- Month-over-month trends precomputed by TrendSnapshotService, one row per user so
+-- GET /insights/trends is a primary-key lookup.
+
+CREATE TABLE trend_snapshots (
+  user_id BIGINT PRIMARY KEY REFERENCES users(id),
+  as_of_month DATE NOT NULL,
+  computed_at TIMESTAMP NOT NULL DEFAULT NOW(),
+  -- Versioned binary encoding of monthly totals, rolling averages and biggest movers
+  payload BYTEA NOT NULL
+);
+
+-- Progress of each day's snapshot run. next_user_id is the first user not yet written,
+-- so a run interrupted by a restart picks up from there instead of starting over.
+CREATE TABLE trend_snapshot_runs (
+  run_date DATE PRIMARY KEY,
+  as_of_month DATE NOT NULL,
+  next_user_id BIGINT NOT NULL DEFAULT 1,
+  started_at TIMESTAMP NOT NULL DEFAULT NOW(),
+  completed_at TIMESTAMP
+);
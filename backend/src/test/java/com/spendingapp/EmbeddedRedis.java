@@ -0,0 +1,58 @@
+package com.spendingapp;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.ServerSocket;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import redis.embedded.RedisServer;
+
+/** A throwaway Redis on a free port, for tests that need to run the Lua scripts for real. */
+public final class EmbeddedRedis implements AutoCloseable {
+  private final RedisServer server;
+  private final LettuceConnectionFactory connectionFactory;
+  private final StringRedisTemplate template;
+
+  private EmbeddedRedis(RedisServer server, LettuceConnectionFactory connectionFactory) {
+    this.server = server;
+    this.connectionFactory = connectionFactory;
+    this.template = new StringRedisTemplate(connectionFactory);
+  }
+
+  public static EmbeddedRedis start() throws IOException {
+    int port = freePort();
+    RedisServer server = new RedisServer(port);
+    server.start();
+    LettuceConnectionFactory connectionFactory =
+        new LettuceConnectionFactory(new RedisStandaloneConfiguration("localhost", port));
+    connectionFactory.afterPropertiesSet();
+    connectionFactory.start();
+    return new EmbeddedRedis(server, connectionFactory);
+  }
+
+  public StringRedisTemplate template() {
+    return template;
+  }
+
+  public void flushAll() {
+    template.execute(connection -> {
+      connection.serverCommands().flushAll();
+      return null;
+    }, true);
+  }
+
+  @Override
+  public void close() throws IOException {
+    connectionFactory.destroy();
+    server.stop();
+  }
+
+  private static int freePort() {
+    try (ServerSocket socket = new ServerSocket(0)) {
+      return socket.getLocalPort();
+    } catch (IOException ex) {
+      throw new UncheckedIOException(ex);
+    }
+  }
+}
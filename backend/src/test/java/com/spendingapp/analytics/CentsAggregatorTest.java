@@ -0,0 +1,98 @@
+package com.spendingapp.analytics;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.math.BigDecimal;
+import org.junit.jupiter.api.Test;
+
+class CentsAggregatorTest {
+  @Test
+  void sumsAndCountsPerSlot() {
+    CentsAggregator aggregator = new CentsAggregator(4);
+    aggregator.add(2, 1250);
+    aggregator.add(2, -250);
+    aggregator.add(0, 99);
+
+    assertThat(aggregator.slots()).isEqualTo(3);
+    assertThat(aggregator.totalCents(2)).isEqualTo(1000);
+    assertThat(aggregator.count(2)).isEqualTo(2);
+    assertThat(aggregator.totalCents(1)).isZero();
+    assertThat(aggregator.count(1)).isZero();
+    assertThat(aggregator.grandTotalCents()).isEqualTo(1099);
+    assertThat(aggregator.grandCount()).isEqualTo(3);
+  }
+
+  @Test
+  void growsPastTheExpectedSlots() {
+    CentsAggregator aggregator = new CentsAggregator(1);
+    aggregator.add(40, 5);
+
+    assertThat(aggregator.slots()).isEqualTo(41);
+    assertThat(aggregator.totalCents(40)).isEqualTo(5);
+    assertThat(aggregator.totalCents(1000)).isZero();
+  }
+
+  @Test
+  void readsTotalsOutAsTwoDecimalAmounts() {
+    CentsAggregator aggregator = new CentsAggregator();
+    aggregator.add(0, 1234);
+    aggregator.add(1, -5);
+
+    assertThat(aggregator.total(0)).isEqualTo(new BigDecimal("12.34"));
+    assertThat(aggregator.total(1)).isEqualTo(new BigDecimal("-0.05"));
+    assertThat(aggregator.total(7)).isEqualTo(new BigDecimal("0.00"));
+  }
+
+  @Test
+  void mergesAnotherAggregatorWithMoreSlots() {
+    CentsAggregator left = new CentsAggregator(2);
+    left.add(0, 100);
+    CentsAggregator right = new CentsAggregator(2);
+    right.add(0, 50);
+    right.add(5, 7);
+
+    left.merge(right);
+
+    assertThat(left.slots()).isEqualTo(6);
+    assertThat(left.totalCents(0)).isEqualTo(150);
+    assertThat(left.count(0)).isEqualTo(2);
+    assertThat(left.totalCents(5)).isEqualTo(7);
+    assertThat(left.count(5)).isEqualTo(1);
+  }
+
+  @Test
+  void resetEmptiesEverySlotForReuse() {
+    CentsAggregator aggregator = new CentsAggregator();
+    aggregator.add(3, 10);
+    aggregator.reset();
+
+    assertThat(aggregator.slots()).isZero();
+    assertThat(aggregator.grandTotalCents()).isZero();
+
+    aggregator.add(1, 4);
+    assertThat(aggregator.totalCents(3)).isZero();
+    assertThat(aggregator.totalCents(1)).isEqualTo(4);
+  }
+
+  @Test
+  void failsOnOverflowInsteadOfWrapping() {
+    CentsAggregator aggregator = new CentsAggregator();
+    aggregator.add(0, Long.MAX_VALUE);
+
+    assertThatThrownBy(() -> aggregator.add(0, 1)).isInstanceOf(ArithmeticException.class);
+  }
+
+  @Test
+  void rejectsNegativeSlots() {
+    assertThatThrownBy(() -> new CentsAggregator().add(-1, 1)).isInstanceOf(IllegalArgumentException.class);
+  }
+
+  @Test
+  void roundsAmountsToCentsHalfUp() {
+    assertThat(Cents.of(new BigDecimal("1.005"))).isEqualTo(101);
+    assertThat(Cents.of(new BigDecimal("1.004"))).isEqualTo(100);
+    assertThat(Cents.of(new BigDecimal("-1.005"))).isEqualTo(-101);
+    assertThat(Cents.of(new BigDecimal("42"))).isEqualTo(4200);
+  }
+}
@@ -0,0 +1,104 @@
+package com.spendingapp.analytics;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import org.junit.jupiter.api.Test;
+
+class MonthlyTrendsTest {
+  // Four reported months plus the two lookback months: window months 0..5, reported 0..3 = window 2..5
+  private final MonthlyTrends trends = new MonthlyTrends(4);
+
+  @Test
+  void reportsTotalsFromTheFirstMonthAfterTheLookback() {
+    addMonths(7, 100, 200, 300, 400, 500, 600);
+
+    assertThat(trends.total(7, 0)).isEqualTo(300);
+    assertThat(trends.total(7, 3)).isEqualTo(600);
+  }
+
+  @Test
+  void averagesEachReportedMonthWithTheTwoBeforeIt() {
+    addMonths(7, 100, 200, 300, 400, 500, 600);
+
+    assertThat(trends.rollingAverage(7, 0)).isEqualTo(200);
+    assertThat(trends.rollingAverage(7, 1)).isEqualTo(300);
+    assertThat(trends.rollingAverage(7, 3)).isEqualTo(500);
+  }
+
+  @Test
+  void roundsAveragesToTheNearestCent() {
+    addMonths(1, 1, 1, 0, 0, 0, 0);
+    addMonths(2, 1, 0, 0, 0, 0, 0);
+    addMonths(3, -1, -1, 0, 0, 0, 0);
+    addMonths(4, -1, 0, 0, 0, 0, 0);
+
+    // 2/3 rounds up to 1, 1/3 down to 0, and the same away from zero for refunds
+    assertThat(trends.rollingAverage(1, 0)).isEqualTo(1);
+    assertThat(trends.rollingAverage(2, 0)).isZero();
+    assertThat(trends.rollingAverage(3, 0)).isEqualTo(-1);
+    assertThat(trends.rollingAverage(4, 0)).isZero();
+  }
+
+  @Test
+  void measuresChangeAgainstTheThreeMonthsBeforeTheLast() {
+    addMonths(7, 100, 200, 300, 400, 500, 600);
+
+    assertThat(trends.previousAverage(7)).isEqualTo(400);
+    assertThat(trends.change(7)).isEqualTo(200);
+  }
+
+  @Test
+  void ranksMoversByAbsoluteChangeThenLowerId() {
+    addSteady(1, 50);
+    addSteady(2, -80);
+    addSteady(3, 0);
+    addSteady(4, 80);
+
+    assertThat(trends.biggestMovers(2)).containsExactly(2, 4);
+    // Categories that didn't move are never movers
+    assertThat(trends.biggestMovers(10)).containsExactly(2, 4, 1);
+  }
+
+  @Test
+  void accumulatesRowsForTheSameMonth() {
+    trends.add(5, 5, 250);
+    trends.add(5, 5, 125);
+
+    assertThat(trends.total(5, 3)).isEqualTo(375);
+  }
+
+  @Test
+  void listsCategoriesInIdOrderAndResetsBetweenUsers() {
+    trends.add(9, 2, 1);
+    trends.add(3, 2, 1);
+
+    assertThat(trends.categoryIds()).containsExactly(3, 9);
+
+    trends.reset();
+    assertThat(trends.isEmpty()).isTrue();
+    assertThat(trends.categoryIds()).isEmpty();
+  }
+
+  @Test
+  void rejectsMonthsOutsideTheWindow() {
+    assertThatThrownBy(() -> trends.add(1, -1, 1)).isInstanceOf(IllegalArgumentException.class);
+    assertThatThrownBy(() -> trends.add(1, 6, 1)).isInstanceOf(IllegalArgumentException.class);
+  }
+
+  @Test
+  void needsMoreMonthsThanTheAverageSpans() {
+    assertThatThrownBy(() -> new MonthlyTrends(MonthlyTrends.AVERAGE_MONTHS)).isInstanceOf(IllegalArgumentException.class);
+  }
+
+  private void addMonths(int categoryId, long... cents) {
+    for (int month = 0; month < cents.length; month++) {
+      trends.add(categoryId, month, cents[month]);
+    }
+  }
+
+  // 100 a month, then the last month off by change
+  private void addSteady(int categoryId, long change) {
+    addMonths(categoryId, 0, 0, 100, 100, 100, 100 + change);
+  }
+}
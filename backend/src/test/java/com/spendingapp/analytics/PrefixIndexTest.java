@@ -0,0 +1,82 @@
+package com.spendingapp.analytics;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+class PrefixIndexTest {
+  private final PrefixIndex index = PrefixIndex.of(Map.of(
+      "Starbucks", 5L,
+      "Safeway", 9L,
+      "Shell", 2L,
+      "Target", 1L));
+
+  @Test
+  void ranksMatchesByUsesThenName() {
+    assertThat(index.suggest("s", 10)).containsExactly("Safeway", "Starbucks", "Shell");
+  }
+
+  @Test
+  void matchesPrefixesIgnoringCase() {
+    assertThat(index.suggest("ST", 10)).containsExactly("Starbucks");
+    assertThat(index.suggest("tar", 10)).containsExactly("Target");
+  }
+
+  @Test
+  void keepsOnlyTheTopLimit() {
+    assertThat(index.suggest("s", 2)).containsExactly("Safeway", "Starbucks");
+    assertThat(index.suggest("", 1)).containsExactly("Safeway");
+  }
+
+  @Test
+  void emptyPrefixMatchesEveryName() {
+    assertThat(index.suggest("", 10)).containsExactly("Safeway", "Starbucks", "Shell", "Target");
+  }
+
+  @Test
+  void returnsNothingWithoutAMatch() {
+    assertThat(index.suggest("x", 10)).isEmpty();
+    assertThat(index.suggest("starbucksx", 10)).isEmpty();
+    assertThat(PrefixIndex.empty().suggest("", 10)).isEmpty();
+  }
+
+  @Test
+  void breaksTiesAlphabetically() {
+    PrefixIndex tied = PrefixIndex.of(Map.of("b", 1L, "a", 1L, "c", 1L));
+
+    assertThat(tied.suggest("", 10)).containsExactly("a", "b", "c");
+  }
+
+  @Test
+  void insertsNewNamesInSortedPosition() {
+    PrefixIndex built = PrefixIndex.empty().withUse("Costco").withUse("Amazon").withUse("Best Buy");
+
+    assertThat(built.size()).isEqualTo(3);
+    assertThat(built.suggest("", 10)).containsExactly("Amazon", "Best Buy", "Costco");
+    assertThat(built.suggest("b", 10)).containsExactly("Best Buy");
+  }
+
+  @Test
+  void countsAnotherUseWithoutChangingTheOriginal() {
+    PrefixIndex updated = index.withUse("Shell").withUse("Shell").withUse("Shell").withUse("Shell");
+
+    assertThat(updated.size()).isEqualTo(4);
+    assertThat(updated.suggest("s", 10)).containsExactly("Safeway", "Shell", "Starbucks");
+    assertThat(index.suggest("s", 10)).containsExactly("Safeway", "Starbucks", "Shell");
+  }
+
+  @Test
+  void keepsNamesThatDifferOnlyInCaseApart() {
+    PrefixIndex updated = index.withUse("SHELL");
+
+    assertThat(updated.size()).isEqualTo(5);
+    assertThat(updated.suggest("shell", 10)).containsExactly("Shell", "SHELL");
+  }
+
+  @Test
+  void estimatesMoreBytesForMoreNames() {
+    assertThat(index.withUse("Walgreens").estimatedBytes()).isGreaterThan(index.estimatedBytes());
+    assertThat(PrefixIndex.empty().estimatedBytes()).isPositive();
+  }
+}
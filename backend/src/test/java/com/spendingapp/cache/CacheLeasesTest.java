@@ -0,0 +1,87 @@
+package com.spendingapp.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.spendingapp.EmbeddedRedis;
+import java.io.IOException;
+import java.time.Duration;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+
+class CacheLeasesTest {
+  private static EmbeddedRedis redis;
+
+  private CacheLeases leases;
+
+  @BeforeAll
+  static void startRedis() throws IOException {
+    redis = EmbeddedRedis.start();
+  }
+
+  @AfterAll
+  static void stopRedis() throws IOException {
+    redis.close();
+  }
+
+  @BeforeEach
+  void setUp() {
+    redis.flushAll();
+    leases = new CacheLeases(redis.template(), Duration.ofMinutes(1));
+  }
+
+  @Test
+  void grantsOneHolderAtATime() {
+    String token = leases.tryAcquire("insights", "uid");
+
+    assertThat(token).isNotBlank();
+    assertThat(leases.tryAcquire("insights", "uid")).isNull();
+    assertThat(leases.tryAcquire("insights", "other-uid")).isNotBlank();
+
+    leases.release("insights", "uid", token);
+    assertThat(leases.tryAcquire("insights", "uid")).isNotBlank();
+  }
+
+  @Test
+  void ignoresReleasesByAnyoneButTheHolder() {
+    leases.tryAcquire("insights", "uid");
+
+    leases.release("insights", "uid", "someone-else");
+
+    assertThat(leases.tryAcquire("insights", "uid")).isNull();
+  }
+
+  @Test
+  void expiresOnItsOwn() throws InterruptedException {
+    CacheLeases shortLeases = new CacheLeases(redis.template(), Duration.ofMillis(50));
+    shortLeases.tryAcquire("insights", "uid");
+
+    Thread.sleep(150);
+
+    assertThat(shortLeases.tryAcquire("insights", "uid")).isNotBlank();
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  void letsEveryoneThroughWhileRedisIsUnreachable() {
+    StringRedisTemplate unreachable = mock(StringRedisTemplate.class);
+    when(unreachable.opsForValue()).thenThrow(new RedisConnectionFailureException("down"));
+    CacheLeases unguarded = new CacheLeases(unreachable, Duration.ofMinutes(1));
+
+    String token = unguarded.tryAcquire("insights", "uid");
+    unguarded.release("insights", "uid", token);
+
+    assertThat(token).isEqualTo(CacheLeases.UNGUARDED);
+    verify(unreachable, never()).execute(any(RedisScript.class), anyList(), any(Object[].class));
+  }
+}
@@ -0,0 +1,117 @@
+package com.spendingapp.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.Arrays;
+import org.junit.jupiter.api.Test;
+
+class CodecRoundTripTest {
+  @Test
+  void roundTripsUnsignedVarints() {
+    long[] values = {0, 1, 127, 128, 16_383, 16_384, Integer.MAX_VALUE, 1L << 35, Long.MAX_VALUE, -1};
+    CodecOutput out = new CodecOutput(0);
+    for (long value : values) {
+      out.writeVarLong(value);
+    }
+
+    CodecInput in = new CodecInput(out.toByteArray());
+    for (long value : values) {
+      assertThat(in.readVarLong()).isEqualTo(value);
+    }
+    assertThat(in.hasRemaining()).isFalse();
+  }
+
+  @Test
+  void spendsSevenBitsPerByte() {
+    assertThat(varLongBytes(0)).isEqualTo(1);
+    assertThat(varLongBytes(127)).isEqualTo(1);
+    assertThat(varLongBytes(128)).isEqualTo(2);
+    assertThat(varLongBytes(16_384)).isEqualTo(3);
+    assertThat(varLongBytes(-1)).isEqualTo(10);
+  }
+
+  @Test
+  void roundTripsSignedVarintsWithSmallNegativesStayingShort() {
+    long[] values = {0, -1, 1, 63, -64, 64, -65, Long.MIN_VALUE, Long.MAX_VALUE};
+    CodecOutput out = new CodecOutput(0);
+    for (long value : values) {
+      out.writeSignedVarLong(value);
+    }
+
+    CodecInput in = new CodecInput(out.toByteArray());
+    for (long value : values) {
+      assertThat(in.readSignedVarLong()).isEqualTo(value);
+    }
+
+    CodecOutput refund = new CodecOutput(0);
+    refund.writeSignedVarLong(-64);
+    assertThat(refund.toByteArray()).hasSize(1);
+  }
+
+  @Test
+  void roundTripsIntsAsUnsigned() {
+    CodecOutput out = new CodecOutput(0);
+    out.writeVarInt(300);
+    out.writeVarInt(-1);
+    out.writeVarInt(Integer.MIN_VALUE);
+
+    CodecInput in = new CodecInput(out.toByteArray());
+    assertThat(in.readVarInt()).isEqualTo(300);
+    assertThat(in.readVarInt()).isEqualTo(-1);
+    assertThat(in.readVarInt()).isEqualTo(Integer.MIN_VALUE);
+  }
+
+  @Test
+  void roundTripsStringsAndBytesPastTheInitialCapacity() {
+    CodecOutput out = new CodecOutput(1);
+    out.writeString("");
+    out.writeString("Café ☕");
+    out.writeByte(0xFE);
+    for (int i = 0; i < 100; i++) {
+      out.writeString("merchant-" + i);
+    }
+
+    CodecInput in = new CodecInput(out.toByteArray());
+    assertThat(in.readString()).isEmpty();
+    assertThat(in.readString()).isEqualTo("Café ☕");
+    assertThat(in.readByte()).isEqualTo(0xFE);
+    for (int i = 0; i < 100; i++) {
+      assertThat(in.readString()).isEqualTo("merchant-" + i);
+    }
+    assertThat(in.hasRemaining()).isFalse();
+  }
+
+  @Test
+  void rejectsTruncatedInput() {
+    assertThatThrownBy(() -> new CodecInput(new byte[0]).readByte()).isInstanceOf(IllegalArgumentException.class);
+    assertThatThrownBy(() -> new CodecInput(new byte[] {(byte) 0x80}).readVarLong())
+        .isInstanceOf(IllegalArgumentException.class);
+    // Claims five bytes of string, has two
+    assertThatThrownBy(() -> new CodecInput(new byte[] {5, 'a', 'b'}).readString())
+        .isInstanceOf(IllegalArgumentException.class);
+  }
+
+  @Test
+  void rejectsVarintsLongerThanALong() {
+    byte[] bytes = new byte[11];
+    Arrays.fill(bytes, (byte) 0x80);
+
+    assertThatThrownBy(() -> new CodecInput(bytes).readVarLong()).isInstanceOf(IllegalArgumentException.class);
+  }
+
+  @Test
+  void rejectsIntsThatDoNotFit() {
+    CodecOutput out = new CodecOutput(0);
+    out.writeVarLong(1L << 32);
+
+    assertThatThrownBy(() -> new CodecInput(out.toByteArray()).readVarInt())
+        .isInstanceOf(IllegalArgumentException.class);
+  }
+
+  private static int varLongBytes(long value) {
+    CodecOutput out = new CodecOutput(0);
+    out.writeVarLong(value);
+    return out.toByteArray().length;
+  }
+}
@@ -0,0 +1,91 @@
+package com.spendingapp.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.spendingapp.dto.InsightDto;
+import com.spendingapp.dto.InsightsResponse;
+import com.spendingapp.repository.CategoryRepository;
+import com.spendingapp.repository.MerchantRepository;
+import com.spendingapp.service.DictionaryCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.serializer.SerializationException;
+
+class InsightsCodecTest {
+  private static final InsightsResponse INSIGHTS = new InsightsResponse(
+      new BigDecimal("172.46"),
+      4,
+      List.of(
+          new InsightDto("Groceries", new BigDecimal("154.21")),
+          new InsightDto("Coffee", new BigDecimal("18.75")),
+          new InsightDto("Refunds", new BigDecimal("-0.50"))));
+
+  private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+  private CodecRedisSerializer<InsightsResponse> serializer;
+
+  @BeforeEach
+  void setUp() {
+    CategoryRepository categories = mock(CategoryRepository.class);
+    category(categories, 1, "Groceries");
+    category(categories, 2, "Coffee");
+    category(categories, 300, "Refunds");
+    DictionaryCache dictionary = new DictionaryCache(categories, mock(MerchantRepository.class), 100);
+    serializer = new CodecRedisSerializer<>(new InsightsCodec(dictionary), meterRegistry);
+  }
+
+  private static void category(CategoryRepository categories, int id, String name) {
+    when(categories.findIdByName(name)).thenReturn(id);
+    when(categories.findNameById(id)).thenReturn(name);
+  }
+
+  @Test
+  void roundTripsInsights() {
+    assertThat(serializer.deserialize(serializer.serialize(INSIGHTS))).isEqualTo(INSIGHTS);
+  }
+
+  @Test
+  void startsWithTheVersionAndStaysCompact() {
+    byte[] bytes = serializer.serialize(INSIGHTS);
+
+    assertThat(bytes[0]).isEqualTo((byte) 1);
+    // Version, total, count, size, then id and amount per category
+    assertThat(bytes).hasSize(1 + 3 + 1 + 1 + (1 + 3) + (1 + 2) + (2 + 1));
+  }
+
+  @Test
+  void readsOtherVersionsAsMisses() {
+    byte[] bytes = serializer.serialize(INSIGHTS);
+    bytes[0] = 2;
+
+    assertThat(serializer.deserialize(bytes)).isNull();
+    assertThat(meterRegistry.get("cache.codec.version.mismatches").tag("cache", "insights").counter().count())
+        .isEqualTo(1);
+  }
+
+  @Test
+  void readsEmptyPayloadsAsMisses() {
+    assertThat(serializer.deserialize(null)).isNull();
+    assertThat(serializer.deserialize(new byte[0])).isNull();
+  }
+
+  @Test
+  void reportsCorruptPayloads() {
+    byte[] bytes = serializer.serialize(INSIGHTS);
+    byte[] truncated = Arrays.copyOf(bytes, bytes.length - 2);
+
+    assertThatThrownBy(() -> serializer.deserialize(truncated)).isInstanceOf(SerializationException.class);
+  }
+
+  @Test
+  void refusesValuesOfAnotherType() {
+    assertThatThrownBy(() -> serializer.serialize("not insights")).isInstanceOf(SerializationException.class);
+    assertThatThrownBy(() -> serializer.serialize(null)).isInstanceOf(SerializationException.class);
+  }
+}
@@ -0,0 +1,145 @@
+package com.spendingapp.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+
+class TwoTierCacheTest {
+  private final Cache remote = new ConcurrentMapCache("insights", false);
+  private final CacheLeases leases = mock(CacheLeases.class);
+  private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+  private final AtomicInteger loads = new AtomicInteger();
+
+  @Test
+  void concurrentMissesShareOneLoad() throws Exception {
+    when(leases.tryAcquire("insights", "uid")).thenReturn("token");
+    TwoTierCache cache = cache(Duration.ofSeconds(10));
+    CountDownLatch loading = new CountDownLatch(1);
+    CountDownLatch finish = new CountDownLatch(1);
+    ExecutorService callers = Executors.newFixedThreadPool(5);
+
+    CompletableFuture<String> leader = CompletableFuture.supplyAsync(() -> cache.get("uid", () -> {
+      loading.countDown();
+      finish.await();
+      return load("fresh");
+    }), callers);
+    assertThat(loading.await(5, TimeUnit.SECONDS)).isTrue();
+    List<CompletableFuture<String>> followers = new ArrayList<>();
+    for (int i = 0; i < 4; i++) {
+      followers.add(CompletableFuture.supplyAsync(() -> cache.get("uid", () -> load("duplicate")), callers));
+    }
+    while (singleFlight("coalesced-local") < 4) {
+      Thread.sleep(5);
+    }
+    finish.countDown();
+
+    assertThat(leader.get(5, TimeUnit.SECONDS)).isEqualTo("fresh");
+    for (CompletableFuture<String> follower : followers) {
+      assertThat(follower.get(5, TimeUnit.SECONDS)).isEqualTo("fresh");
+    }
+    assertThat(loads).hasValue(1);
+    assertThat(remote.get("uid").get()).isEqualTo("fresh");
+    verify(leases).release("insights", "uid", "token");
+    callers.shutdown();
+  }
+
+  @Test
+  void takesTheResultOfTheReplicaHoldingTheLease() {
+    when(leases.tryAcquire("insights", "uid")).thenAnswer(invocation -> {
+      // The other replica finishes while this one is waiting
+      remote.put("uid", "from-other-replica");
+      return null;
+    });
+    TwoTierCache cache = cache(Duration.ofSeconds(10));
+
+    assertThat(cache.get("uid", () -> load("fresh"))).isEqualTo("from-other-replica");
+    assertThat(loads).hasValue(0);
+    assertThat(singleFlight("coalesced-remote")).isEqualTo(1);
+  }
+
+  @Test
+  void servesTheEvictedValueWhenTheLeaseHolderIsSlow() {
+    when(leases.tryAcquire(anyString(), any())).thenReturn(null);
+    TwoTierCache cache = cache(Duration.ofMillis(50));
+    cache.put("uid", "before-write");
+    cache.evict("uid");
+
+    assertThat(cache.get("uid", () -> load("fresh"))).isEqualTo("before-write");
+    assertThat(loads).hasValue(0);
+    assertThat(singleFlight("stale")).isEqualTo(1);
+  }
+
+  @Test
+  void loadsItselfWhenTheLeaseHolderIsSlowAndNothingIsStale() {
+    when(leases.tryAcquire(anyString(), any())).thenReturn(null);
+    TwoTierCache cache = cache(Duration.ofMillis(50));
+
+    assertThat(cache.get("uid", () -> load("fresh"))).isEqualTo("fresh");
+    assertThat(loads).hasValue(1);
+    assertThat(remote.get("uid").get()).isEqualTo("fresh");
+  }
+
+  @Test
+  void loadsUnguardedWhileRedisIsUnreachable() {
+    when(leases.tryAcquire(anyString(), any())).thenReturn(CacheLeases.UNGUARDED);
+    TwoTierCache cache = cache(Duration.ofSeconds(10));
+
+    assertThat(cache.get("uid", () -> load("fresh"))).isEqualTo("fresh");
+    assertThat(cache.get("uid", () -> load("again"))).isEqualTo("fresh");
+    assertThat(loads).hasValue(1);
+  }
+
+  @Test
+  void doesNotRememberAFailedLoad() {
+    when(leases.tryAcquire(anyString(), any())).thenReturn("token");
+    TwoTierCache cache = cache(Duration.ofSeconds(10));
+
+    assertThatThrownBy(() -> cache.get("uid", () -> {
+      throw new IllegalStateException("database down");
+    })).isInstanceOf(Cache.ValueRetrievalException.class);
+
+    assertThat(cache.get("uid", () -> load("fresh"))).isEqualTo("fresh");
+    verify(leases, times(2)).release("insights", "uid", "token");
+  }
+
+  private TwoTierCache cache(Duration waitTimeout) {
+    return new TwoTierCache(
+        "insights",
+        Caffeine.newBuilder().build(),
+        remote,
+        mock(CacheInvalidationPublisher.class),
+        Caffeine.newBuilder().build(),
+        leases,
+        waitTimeout,
+        meterRegistry);
+  }
+
+  private String load(String value) {
+    loads.incrementAndGet();
+    return value;
+  }
+
+  private double singleFlight(String outcome) {
+    return meterRegistry.get("cache.single.flight").tag("outcome", outcome).counter().count();
+  }
+}
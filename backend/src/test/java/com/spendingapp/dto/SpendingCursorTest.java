@@ -0,0 +1,45 @@
+package com.spendingapp.dto;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Base64;
+import org.junit.jupiter.api.Test;
+
+class SpendingCursorTest {
+  @Test
+  void roundTripsThroughItsEncoding() {
+    SpendingCursor cursor = new SpendingCursor(LocalDate.of(2024, 2, 29), 9_007_199_254_740_993L);
+
+    assertThat(SpendingCursor.decode(cursor.encode())).isEqualTo(cursor);
+  }
+
+  @Test
+  void encodesToUrlSafeTextWithoutPadding() {
+    String encoded = new SpendingCursor(LocalDate.of(2023, 12, 31), 1L).encode();
+
+    assertThat(encoded).matches("[A-Za-z0-9_-]+");
+  }
+
+  @Test
+  void takesItsPositionFromTheLastRowOfAPage() {
+    SpendingDto row = new SpendingDto(42L, new BigDecimal("18.75"), "Coffee", "Starbucks", LocalDate.of(2024, 5, 3));
+
+    assertThat(SpendingCursor.of(row)).isEqualTo(new SpendingCursor(LocalDate.of(2024, 5, 3), 42L));
+  }
+
+  @Test
+  void rejectsCursorsItDidNotWrite() {
+    assertThatThrownBy(() -> SpendingCursor.decode("***")).isInstanceOf(IllegalArgumentException.class);
+    assertThatThrownBy(() -> SpendingCursor.decode(encode("2024-01-01"))).isInstanceOf(IllegalArgumentException.class);
+    assertThatThrownBy(() -> SpendingCursor.decode(encode("2024-13-01:5"))).isInstanceOf(IllegalArgumentException.class);
+    assertThatThrownBy(() -> SpendingCursor.decode(encode("2024-01-01:five"))).isInstanceOf(IllegalArgumentException.class);
+  }
+
+  private static String encode(String raw) {
+    return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+  }
+}
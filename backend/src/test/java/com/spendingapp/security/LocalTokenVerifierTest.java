@@ -0,0 +1,74 @@
+package com.spendingapp.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import org.junit.jupiter.api.Test;
+
+class LocalTokenVerifierTest {
+  private static final String SECRET = "local-test-secret-0123456789abcdef";
+
+  private final LocalTokenVerifier verifier = new LocalTokenVerifier(SECRET);
+
+  @Test
+  void verifiesTokensItIssued() {
+    long before = Instant.now().getEpochSecond();
+
+    VerifiedIdToken token = verifier.verify(verifier.issue("user.with.dots-ü", Duration.ofMinutes(10)));
+
+    assertThat(token.uid()).isEqualTo("user.with.dots-ü");
+    assertThat(token.expiresAtEpochSecond()).isBetween(before + 600, Instant.now().getEpochSecond() + 600);
+  }
+
+  @Test
+  void rejectsTokensSignedWithAnotherSecret() {
+    String token = new LocalTokenVerifier("another-secret-0123456789abcdefgh").issue("alice", Duration.ofMinutes(10));
+
+    assertThatThrownBy(() -> verifier.verify(token)).hasMessage("Bad signature");
+  }
+
+  @Test
+  void rejectsTokensWhoseUidWasSwapped() {
+    String token = verifier.issue("alice", Duration.ofMinutes(10));
+    String forged = token.replace(base64("alice"), base64("mallory"));
+
+    assertThatThrownBy(() -> verifier.verify(forged)).hasMessage("Bad signature");
+  }
+
+  @Test
+  void rejectsTokensWhoseExpiryWasExtended() {
+    String token = verifier.issue("alice", Duration.ofMinutes(10));
+    String[] parts = token.split("\\.");
+    String forged = parts[0] + "." + parts[1] + "." + (Long.parseLong(parts[2]) + 86_400) + "." + parts[3];
+
+    assertThatThrownBy(() -> verifier.verify(forged)).hasMessage("Bad signature");
+  }
+
+  @Test
+  void rejectsExpiredTokens() {
+    String token = verifier.issue("alice", Duration.ofSeconds(-1));
+
+    assertThatThrownBy(() -> verifier.verify(token)).hasMessage("Token expired");
+  }
+
+  @Test
+  void rejectsMalformedTokens() {
+    for (String token : new String[] {"not-a-token", "local.", "local.abc", "firebase.abc.1.sig", "local.abc.1.***"}) {
+      assertThatThrownBy(() -> verifier.verify(token)).as(token).isInstanceOf(IllegalArgumentException.class);
+    }
+  }
+
+  @Test
+  void refusesShortSecrets() {
+    assertThatThrownBy(() -> new LocalTokenVerifier("too-short")).isInstanceOf(IllegalStateException.class);
+    assertThatThrownBy(() -> new LocalTokenVerifier("")).isInstanceOf(IllegalStateException.class);
+  }
+
+  private static String base64(String value) {
+    return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+  }
+}
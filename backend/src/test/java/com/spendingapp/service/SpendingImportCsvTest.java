@@ -0,0 +1,65 @@
+package com.spendingapp.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.spendingapp.dto.CreateSpendingRequest;
+import com.spendingapp.service.SpendingImportService.CsvColumns;
+import org.junit.jupiter.api.Test;
+
+class SpendingImportCsvTest {
+  @Test
+  void splitsPlainFields() {
+    assertThat(SpendingImportService.splitCsvLine("12.50,Dining,Chipotle,2024-01-05"))
+        .containsExactly("12.50", "Dining", "Chipotle", "2024-01-05");
+  }
+
+  @Test
+  void keepsCommasAndEscapedQuotesInsideQuotedFields() {
+    assertThat(SpendingImportService.splitCsvLine("\"Smith, J\",\"He said \"\"hi\"\"\",x"))
+        .containsExactly("Smith, J", "He said \"hi\"", "x");
+  }
+
+  @Test
+  void keepsEmptyFields() {
+    assertThat(SpendingImportService.splitCsvLine("a,,c,")).containsExactly("a", "", "c", "");
+    assertThat(SpendingImportService.splitCsvLine("")).containsExactly("");
+  }
+
+  @Test
+  void mapsColumnsByHeaderNameInAnyOrder() {
+    CsvColumns columns = CsvColumns.fromHeader("Date, Merchant ,Notes,AMOUNT,category");
+
+    CreateSpendingRequest request = columns.toRequest("2024-01-05,\"Joe's, Inc\",lunch,12.50,Dining");
+
+    assertThat(request.getAmount()).isEqualTo("12.50");
+    assertThat(request.getCategory()).isEqualTo("Dining");
+    assertThat(request.getMerchant()).isEqualTo("Joe's, Inc");
+    assertThat(request.getTransactionDate()).isEqualTo("2024-01-05");
+  }
+
+  @Test
+  void acceptsEachTransactionDateSpelling() {
+    for (String date : new String[] {"transactionDate", "transaction_date", "date"}) {
+      CsvColumns columns = CsvColumns.fromHeader("amount,category,merchant," + date);
+      assertThat(columns.transactionDate()).isEqualTo(3);
+    }
+  }
+
+  @Test
+  void leavesMissingTrailingFieldsNullForValidation() {
+    CreateSpendingRequest request = CsvColumns.fromHeader("amount,category,merchant,date").toRequest("9.99,Coffee");
+
+    assertThat(request.getAmount()).isEqualTo("9.99");
+    assertThat(request.getCategory()).isEqualTo("Coffee");
+    assertThat(request.getMerchant()).isNull();
+    assertThat(request.getTransactionDate()).isNull();
+  }
+
+  @Test
+  void rejectsHeaderWithoutARequiredColumn() {
+    assertThatThrownBy(() -> CsvColumns.fromHeader("amount,category,date"))
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasMessageContaining("merchant");
+  }
+}
@@ -0,0 +1,82 @@
+package com.spendingapp.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.spendingapp.dto.ImportResult;
+import com.spendingapp.dto.ImportRowError;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.web.server.ResponseStatusException;
+
+class SpendingImportServiceTest {
+  private final UserService userService = mock(UserService.class);
+  private final SpendingBatchWriter batchWriter = mock(SpendingBatchWriter.class);
+  private SpendingImportService importService;
+
+  @BeforeEach
+  void setUp() {
+    when(userService.resolveOrAutoRegister(anyString())).thenReturn(7L);
+    importService = new SpendingImportService(
+        userService,
+        batchWriter,
+        mock(PlatformTransactionManager.class),
+        mock(UserWriteEffects.class),
+        mock(MerchantSuggestions.class),
+        new ObjectMapper());
+    ReflectionTestUtils.setField(importService, "batchSize", 500);
+    ReflectionTestUtils.setField(importService, "maxRows", 100_000L);
+  }
+
+  @Test
+  void readsCsvWithAByteOrderMark() throws IOException {
+    ImportResult result = importCsv("\uFEFFamount,category,merchant,date\n12.50,Dining,Chipotle,2024-01-05\n");
+
+    assertThat(result.imported()).isEqualTo(1);
+    assertThat(result.rejected()).isZero();
+    verify(batchWriter).write(eq(7L), anyList());
+  }
+
+  @Test
+  void rejectsABadHeaderBeforeRegisteringTheUser() {
+    assertThatThrownBy(() -> importCsv("amount,category,date\n12.50,Dining,2024-01-05\n"))
+        .isInstanceOfSatisfying(ResponseStatusException.class,
+            ex -> assertThat(ex.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST));
+    verify(userService, never()).resolveOrAutoRegister(anyString());
+  }
+
+  @Test
+  void reportsNullAndNonObjectNdjsonLinesAsRowErrors() throws IOException {
+    String body = "null\n"
+        + "[1, 2]\n"
+        + "{\"amount\": \"9.99\", \"category\": \"Coffee\", \"merchant\": \"Starbucks\", \"transactionDate\": \"2024-01-05\"}\n";
+
+    ImportResult result = importService.importStatement("uid", stream(body), SpendingImportService.Format.NDJSON);
+
+    assertThat(result.imported()).isEqualTo(1);
+    assertThat(result.rejected()).isEqualTo(2);
+    assertThat(result.errors()).extracting(ImportRowError::line).containsExactly(1L, 2L);
+  }
+
+  private ImportResult importCsv(String body) throws IOException {
+    return importService.importStatement("uid", stream(body), SpendingImportService.Format.CSV);
+  }
+
+  private static ByteArrayInputStream stream(String body) {
+    return new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8));
+  }
+}
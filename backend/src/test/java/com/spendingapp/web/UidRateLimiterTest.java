@@ -0,0 +1,209 @@
+package com.spendingapp.web;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.spendingapp.EmbeddedRedis;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+
+class UidRateLimiterTest {
+  private static final UidRateLimiter.Budget BUDGET = new UidRateLimiter.Budget("writes", 1, 10, 5);
+
+  @Test
+  void clampsTheLeaseToTheBurstAndRejectsEmptyBudgets() {
+    assertThat(new UidRateLimiter.Budget("reads", 1, 3, 10).leaseSize()).isEqualTo(3);
+    assertThatThrownBy(() -> new UidRateLimiter.Budget("reads", 0, 3, 1))
+        .isInstanceOf(IllegalArgumentException.class);
+    assertThatThrownBy(() -> new UidRateLimiter.Budget("reads", 1, 0, 1))
+        .isInstanceOf(IllegalArgumentException.class);
+  }
+
+  /** Local leasing and the fallback, with Redis mocked. */
+  @Nested
+  class Leasing {
+    private final StringRedisTemplate redisTemplate = mock(StringRedisTemplate.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void servesALeaseLocallyUntilItIsUsedUp() {
+      leaseReturns(List.of(5L, 0L));
+      UidRateLimiter limiter = limiter(Duration.ofMinutes(1));
+
+      for (int i = 0; i < 5; i++) {
+        assertThat(limiter.tryAcquire("uid", BUDGET).allowed()).isTrue();
+      }
+      verifyLeaseCalls(1);
+
+      limiter.tryAcquire("uid", BUDGET);
+      verifyLeaseCalls(2);
+      assertThat(meterRegistry.get("rate.limit.leases").counter().count()).isEqualTo(2);
+    }
+
+    @Test
+    void asksRedisAgainOnceALeaseExpires() {
+      leaseReturns(List.of(5L, 0L));
+      UidRateLimiter limiter = limiter(Duration.ZERO);
+
+      limiter.tryAcquire("uid", BUDGET);
+      limiter.tryAcquire("uid", BUDGET);
+
+      verifyLeaseCalls(2);
+    }
+
+    @Test
+    void keepsBucketsPerUser() {
+      leaseReturns(List.of(5L, 0L));
+      UidRateLimiter limiter = limiter(Duration.ofMinutes(1));
+
+      limiter.tryAcquire("alice", BUDGET);
+      limiter.tryAcquire("bob", BUDGET);
+
+      verifyLeaseCalls(2);
+    }
+
+    @Test
+    void remembersAnEmptyBudgetUntilItRefills() {
+      leaseReturns(List.of(0L, 800L));
+      UidRateLimiter limiter = limiter(Duration.ofMinutes(1));
+
+      UidRateLimiter.Decision first = limiter.tryAcquire("uid", BUDGET);
+      UidRateLimiter.Decision second = limiter.tryAcquire("uid", BUDGET);
+
+      assertThat(first).isEqualTo(new UidRateLimiter.Decision(false, 800));
+      assertThat(second.allowed()).isFalse();
+      assertThat(second.retryAfterMillis()).isBetween(1L, 800L);
+      verifyLeaseCalls(1);
+    }
+
+    @Test
+    void limitsPerReplicaWhileRedisIsUnreachable() {
+      when(redisTemplate.execute(any(RedisScript.class), anyList(), any(Object[].class)))
+          .thenThrow(new RedisConnectionFailureException("down"));
+      UidRateLimiter limiter = limiter(Duration.ofMinutes(1));
+      UidRateLimiter.Budget budget = new UidRateLimiter.Budget("writes", 1, 3, 1);
+
+      for (int i = 0; i < 3; i++) {
+        assertThat(limiter.tryAcquire("uid", budget).allowed()).isTrue();
+      }
+      UidRateLimiter.Decision denied = limiter.tryAcquire("uid", budget);
+
+      assertThat(denied.allowed()).isFalse();
+      assertThat(denied.retryAfterMillis()).isBetween(1L, 1000L);
+      // Later requests skip Redis until the retry interval has passed
+      verifyLeaseCalls(1);
+      assertThat(meterRegistry.get("rate.limit.redis.failures").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void goesBackToRedisAfterTheRetryInterval() {
+      when(redisTemplate.execute(any(RedisScript.class), anyList(), any(Object[].class)))
+          .thenThrow(new RedisConnectionFailureException("down"))
+          .thenReturn(List.of(5L, 0L));
+      UidRateLimiter limiter = new UidRateLimiter(
+          redisTemplate, Duration.ofMinutes(1), Duration.ZERO, 4, 1000, meterRegistry);
+
+      limiter.tryAcquire("uid", BUDGET);
+      limiter.tryAcquire("uid", BUDGET);
+
+      verifyLeaseCalls(2);
+      assertThat(meterRegistry.get("rate.limit.leases").counter().count()).isEqualTo(1);
+    }
+
+    private UidRateLimiter limiter(Duration leaseTtl) {
+      return new UidRateLimiter(redisTemplate, leaseTtl, Duration.ofMinutes(1), 4, 1000, meterRegistry);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void leaseReturns(List<Long> result) {
+      when(redisTemplate.execute(any(RedisScript.class), anyList(), any(Object[].class))).thenReturn(result);
+    }
+
+    private void verifyLeaseCalls(int calls) {
+      verify(redisTemplate, times(calls)).execute(any(RedisScript.class), anyList(), any(Object[].class));
+    }
+  }
+
+  /** The lease script, run by a real Redis. */
+  @Nested
+  class SharedBudget {
+    private static EmbeddedRedis redis;
+
+    @BeforeAll
+    static void startRedis() throws IOException {
+      redis = EmbeddedRedis.start();
+    }
+
+    @AfterAll
+    static void stopRedis() throws IOException {
+      redis.close();
+    }
+
+    @BeforeEach
+    void flush() {
+      redis.flushAll();
+    }
+
+    @Test
+    void splitsOneBudgetBetweenReplicas() {
+      UidRateLimiter first = limiter();
+      UidRateLimiter second = limiter();
+
+      int allowed = 0;
+      for (int i = 0; i < 10; i++) {
+        allowed += first.tryAcquire("uid", BUDGET).allowed() ? 1 : 0;
+        allowed += second.tryAcquire("uid", BUDGET).allowed() ? 1 : 0;
+      }
+
+      assertThat(allowed).isEqualTo(BUDGET.burst());
+    }
+
+    @Test
+    void deniesPastTheBurstWithTheTimeUntilATokenRefills() {
+      UidRateLimiter limiter = limiter();
+      for (int i = 0; i < BUDGET.burst(); i++) {
+        assertThat(limiter.tryAcquire("uid", BUDGET).allowed()).isTrue();
+      }
+
+      UidRateLimiter.Decision denied = limiter.tryAcquire("uid", BUDGET);
+
+      assertThat(denied.allowed()).isFalse();
+      assertThat(denied.retryAfterMillis()).isBetween(1L, 1000L);
+      assertThat(limiter.tryAcquire("other-uid", BUDGET).allowed()).isTrue();
+    }
+
+    @Test
+    void refillsAtTheBudgetRate() throws InterruptedException {
+      UidRateLimiter.Budget fast = new UidRateLimiter.Budget("fast", 100, 1, 1);
+      UidRateLimiter limiter = limiter();
+      assertThat(limiter.tryAcquire("uid", fast).allowed()).isTrue();
+      UidRateLimiter.Decision denied = limiter.tryAcquire("uid", fast);
+      assertThat(denied.allowed()).isFalse();
+
+      Thread.sleep(denied.retryAfterMillis() + 20);
+
+      assertThat(limiter.tryAcquire("uid", fast).allowed()).isTrue();
+    }
+
+    private UidRateLimiter limiter() {
+      return new UidRateLimiter(
+          redis.template(), Duration.ofMinutes(1), Duration.ofSeconds(1), 4, 1000, new SimpleMeterRegistry());
+    }
+  }
+}
@@ -0,0 +1,61 @@
+package com.spendingapp.benchmarks;
+
+import com.spendingapp.dto.CreateSpendingRequest;
+import com.spendingapp.service.SpendingValidator;
+import com.spendingapp.service.ValidatedSpending;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The regex and {@code BigDecimal} parsing every {@code POST /spending} and imported row goes
+ * through, for an accepted request and for one rejected on its amount.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AmountParsingBenchmark {
+  private CreateSpendingRequest valid;
+  private CreateSpendingRequest invalidAmount;
+
+  @Setup
+  public void setUp() {
+    valid = request("1234.56");
+    invalidAmount = request("12.345");
+  }
+
+  private static CreateSpendingRequest request(String amount) {
+    CreateSpendingRequest request = new CreateSpendingRequest();
+    request.setAmount(amount);
+    request.setCategory("Groceries");
+    request.setMerchant("Whole Foods");
+    request.setTransactionDate("2024-03-15");
+    return request;
+  }
+
+  @Benchmark
+  public ValidatedSpending validRequest() {
+    return SpendingValidator.validate(valid);
+  }
+
+  @Benchmark
+  public String rejectedAmount() {
+    try {
+      SpendingValidator.validate(invalidAmount);
+      return null;
+    } catch (IllegalArgumentException ex) {
+      return ex.getMessage();
+    }
+  }
+}
@@ -0,0 +1,116 @@
+package com.spendingapp.benchmarks;
+
+import com.spendingapp.cache.CodecRedisSerializer;
+import com.spendingapp.cache.InsightsCodec;
+import com.spendingapp.dto.InsightsResponse;
+import com.spendingapp.dto.SpendingPage;
+import com.spendingapp.repository.CategoryRepository;
+import com.spendingapp.repository.MerchantRepository;
+import com.spendingapp.service.DictionaryCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.lang.reflect.Proxy;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.redis.cache.RedisCacheConfiguration;
+import org.springframework.data.redis.serializer.RedisSerializationContext.SerializationPair;
+
+/**
+ * Round trips through the Redis cache tier's value serializers: JDK serialization
+ * ({@link RedisCacheConfiguration#defaultCacheConfig()}), which caches without a codec still
+ * use, and the {@code insights} cache's {@link InsightsCodec}. Encoded sizes are printed at setup.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CacheSerializationBenchmark {
+  @Param({"50"})
+  public int rows;
+
+  @Param({"jdk", "codec"})
+  public String insightsFormat;
+
+  private SerializationPair<Object> serializer;
+  private SerializationPair<Object> insightsSerializer;
+  private InsightsResponse insights;
+  private SpendingPage page;
+  private byte[] insightsBytes;
+  private byte[] pageBytes;
+
+  @Setup
+  public void setUp() {
+    serializer = RedisCacheConfiguration.defaultCacheConfig().getValueSerializationPair();
+    insightsSerializer = insightsFormat.equals("codec")
+        ? SerializationPair.fromSerializer(new CodecRedisSerializer<>(new InsightsCodec(dictionary()), new SimpleMeterRegistry()))
+        : serializer;
+    insights = SyntheticData.insights();
+    page = new SpendingPage(SyntheticData.dtos(rows), "cursor");
+    insightsBytes = toBytes(insightsSerializer, insights);
+    pageBytes = toBytes(serializer, page);
+    System.out.printf("%ninsights (%s): %d bytes, page: %d bytes%n", insightsFormat, insightsBytes.length, pageBytes.length);
+  }
+
+  // Warm dictionary, as on a replica that has served these categories before
+  private static DictionaryCache dictionary() {
+    DictionaryCache dictionary = new DictionaryCache(
+        dictionaryStub(CategoryRepository.class), dictionaryStub(MerchantRepository.class), 1_000);
+    for (int i = 0; i < SyntheticData.CATEGORIES.length; i++) {
+      dictionary.categoryName(SyntheticData.categoryId(i));
+    }
+    return dictionary;
+  }
+
+  private static <T> T dictionaryStub(Class<T> type) {
+    Object proxy = Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] {type}, (self, method, args) -> {
+      if (method.getName().equals("findNameById")) {
+        return SyntheticData.CATEGORIES[(int) args[0] - 1];
+      }
+      if (method.getName().equals("findIdByName")) {
+        return SyntheticData.categoryId(Arrays.asList(SyntheticData.CATEGORIES).indexOf(args[0]));
+      }
+      throw new UnsupportedOperationException(method.getName());
+    });
+    return type.cast(proxy);
+  }
+
+  private static byte[] toBytes(SerializationPair<Object> serializer, Object value) {
+    ByteBuffer buffer = serializer.write(value);
+    byte[] bytes = new byte[buffer.remaining()];
+    buffer.get(bytes);
+    return bytes;
+  }
+
+  @Benchmark
+  public byte[] writeInsights() {
+    return toBytes(insightsSerializer, insights);
+  }
+
+  @Benchmark
+  public Object readInsights() {
+    return insightsSerializer.read(ByteBuffer.wrap(insightsBytes));
+  }
+
+  @Benchmark
+  public byte[] writePage() {
+    return toBytes(serializer, page);
+  }
+
+  @Benchmark
+  public Object readPage() {
+    return serializer.read(ByteBuffer.wrap(pageBytes));
+  }
+}
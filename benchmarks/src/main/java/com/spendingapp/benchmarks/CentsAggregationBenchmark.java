@@ -0,0 +1,73 @@
+package com.spendingapp.benchmarks;
+
+import com.spendingapp.analytics.Cents;
+import com.spendingapp.analytics.CentsAggregator;
+import com.spendingapp.model.SpendingTransaction;
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Per-category totals over a history: {@code BigDecimal} sums keyed by category name versus
+ * {@link CentsAggregator} over long cents and category ids. Run with {@code -prof gc} to see the
+ * allocation difference.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CentsAggregationBenchmark {
+  @Param({"100", "10000", "1000000"})
+  public int rows;
+
+  private List<SpendingTransaction> history;
+  private int[] categoryIds;
+  private long[] cents;
+  private CentsAggregator aggregator;
+
+  @Setup
+  public void setUp() {
+    history = SyntheticData.transactions(rows);
+    categoryIds = new int[rows];
+    cents = new long[rows];
+    for (int i = 0; i < rows; i++) {
+      // Dictionary ids start at 1; slots start at 0
+      categoryIds[i] = history.get(i).getCategory().getId() - 1;
+      cents[i] = Cents.of(history.get(i).getAmount());
+    }
+    aggregator = new CentsAggregator(SyntheticData.CATEGORIES.length);
+  }
+
+  @Benchmark
+  public Map<String, BigDecimal> bigDecimal() {
+    Map<String, BigDecimal> totals = new HashMap<>();
+    for (SpendingTransaction t : history) {
+      totals.merge(t.getCategory().getName(), t.getAmount(), BigDecimal::add);
+    }
+    return totals;
+  }
+
+  @Benchmark
+  public long longCents() {
+    aggregator.reset();
+    for (int i = 0; i < categoryIds.length; i++) {
+      aggregator.add(categoryIds[i], cents[i]);
+    }
+    return aggregator.grandTotalCents();
+  }
+}
@@ -0,0 +1,57 @@
+package com.spendingapp.benchmarks;
+
+import com.spendingapp.dto.SpendingDto;
+import com.spendingapp.dto.SpendingPage;
+import com.spendingapp.model.SpendingTransaction;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Entity to {@link SpendingDto} mapping for a page of transactions, plus the defensive copy
+ * {@code getTransactions} makes when trimming the look-ahead row.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DtoMappingBenchmark {
+  @Param({"50", "200", "10000"})
+  public int rows;
+
+  private List<SpendingTransaction> transactions;
+
+  @Setup
+  public void setUp() {
+    transactions = SyntheticData.transactions(rows);
+  }
+
+  @Benchmark
+  public List<SpendingDto> mapEntities() {
+    List<SpendingDto> dtos = new ArrayList<>(transactions.size());
+    for (SpendingTransaction t : transactions) {
+      dtos.add(new SpendingDto(
+          t.getId(), t.getAmount(), t.getCategory().getName(), t.getMerchant().getName(), t.getTransactionDate()));
+    }
+    return dtos;
+  }
+
+  @Benchmark
+  public SpendingPage mapPage() {
+    List<SpendingDto> dtos = mapEntities();
+    return new SpendingPage(List.copyOf(dtos.subList(0, dtos.size() - 1)), null);
+  }
+}
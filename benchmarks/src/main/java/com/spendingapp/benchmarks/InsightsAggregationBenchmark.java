@@ -0,0 +1,121 @@
+package com.spendingapp.benchmarks;
+
+import com.spendingapp.analytics.Cents;
+import com.spendingapp.dto.InsightsResponse;
+import com.spendingapp.model.SpendingTransaction;
+import com.spendingapp.repository.CategoryMonthlyRollupRepository;
+import com.spendingapp.repository.CategoryRepository;
+import com.spendingapp.repository.MerchantRepository;
+import com.spendingapp.repository.SpendingTransactionRepository;
+import com.spendingapp.repository.UserAccountRepository;
+import com.spendingapp.service.DictionaryCache;
+import com.spendingapp.service.SpendingService;
+import com.spendingapp.service.UserIdCache;
+import com.spendingapp.service.UserService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+/**
+ * {@link SpendingService#getInsights} over synthetic histories. The repositories are stubs: in
+ * {@code fromHistory} the stub groups the whole history on every call, standing in for the
+ * database aggregating raw transactions; in {@code fromRollups} it returns pre-aggregated rows,
+ * which is what the monthly rollups give the service.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class InsightsAggregationBenchmark {
+  @Param({"100", "10000", "1000000"})
+  public int rows;
+
+  private List<SpendingTransaction> history;
+  private SpendingService historyService;
+  private SpendingService rollupService;
+
+  @Setup
+  public void setUp() {
+    history = SyntheticData.transactions(rows);
+    List<Object[]> aggregated = aggregate(history);
+    historyService = service(() -> aggregate(history));
+    rollupService = service(() -> aggregated);
+  }
+
+  @Benchmark
+  public InsightsResponse fromHistory() {
+    return historyService.getInsights("benchmark-user", null, null);
+  }
+
+  @Benchmark
+  public InsightsResponse fromRollups() {
+    return rollupService.getInsights("benchmark-user", null, null);
+  }
+
+  // Same row shape as the repositories' "group by rollup(category_id)": [category id, total
+  // cents, count] per category in no particular order, then a grand-total row with a null id.
+  static List<Object[]> aggregate(List<SpendingTransaction> transactions) {
+    Map<Integer, long[]> byCategory = new HashMap<>();
+    long totalCents = 0;
+    for (SpendingTransaction t : transactions) {
+      long cents = Cents.of(t.getAmount());
+      long[] sums = byCategory.computeIfAbsent(t.getCategory().getId(), c -> new long[2]);
+      sums[0] += cents;
+      sums[1]++;
+      totalCents += cents;
+    }
+    List<Object[]> rows = new ArrayList<>(byCategory.size() + 1);
+    byCategory.forEach((category, sums) -> rows.add(new Object[] {category, sums[0], sums[1]}));
+    rows.add(new Object[] {null, totalCents, (long) transactions.size()});
+    return rows;
+  }
+
+  private static SpendingService service(Supplier<List<Object[]>> rows) {
+    CategoryMonthlyRollupRepository rollups = stub(CategoryMonthlyRollupRepository.class, rows);
+    SpendingTransactionRepository transactions = stub(SpendingTransactionRepository.class, rows);
+    DictionaryCache dictionary = new DictionaryCache(
+        stub(CategoryRepository.class, rows), stub(MerchantRepository.class, rows), 1_000);
+    // No Redis behind the uid cache: the first lookup falls through to the stub and every later
+    // one is an in-process hit, as on a warm replica
+    UserIdCache userIds = new UserIdCache(new StringRedisTemplate(), 1_000, Duration.ofDays(1), new SimpleMeterRegistry());
+    UserService users = new UserService(stub(UserAccountRepository.class, rows), userIds);
+    return new SpendingService(transactions, users, rollups, null, dictionary, null, null, null);
+  }
+
+  private static <T> T stub(Class<T> type, Supplier<List<Object[]>> rows) {
+    Object proxy = Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] {type}, (self, method, args) -> {
+      if (method.getName().equals("aggregateByCategory")) {
+        return rows.get();
+      }
+      if (method.getName().equals("findIdByFirebaseUid")) {
+        return Optional.of(1L);
+      }
+      if (method.getName().equals("findNameById")) {
+        return SyntheticData.CATEGORIES[(int) args[0] - 1];
+      }
+      throw new UnsupportedOperationException(method.getName());
+    });
+    return type.cast(proxy);
+  }
+}
@@ -0,0 +1,59 @@
+package com.spendingapp.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.spendingapp.dto.InsightsResponse;
+import com.spendingapp.dto.SpendingDto;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+/**
+ * Jackson serialization of the response bodies, with an ObjectMapper built the way Spring MVC
+ * builds its own.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JsonSerializationBenchmark {
+  @Param({"50", "200"})
+  public int rows;
+
+  private ObjectWriter insightsWriter;
+  private ObjectWriter listWriter;
+  private InsightsResponse insights;
+  private List<SpendingDto> transactions;
+
+  @Setup
+  public void setUp() {
+    ObjectMapper mapper = Jackson2ObjectMapperBuilder.json().build();
+    insightsWriter = mapper.writerFor(InsightsResponse.class);
+    listWriter = mapper.writerFor(mapper.getTypeFactory().constructCollectionType(List.class, SpendingDto.class));
+    insights = SyntheticData.insights();
+    transactions = SyntheticData.dtos(rows);
+  }
+
+  @Benchmark
+  public byte[] insightsResponse() throws Exception {
+    return insightsWriter.writeValueAsBytes(insights);
+  }
+
+  @Benchmark
+  public byte[] transactionList() throws Exception {
+    return listWriter.writeValueAsBytes(transactions);
+  }
+}
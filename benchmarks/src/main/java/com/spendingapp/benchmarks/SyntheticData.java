@@ -0,0 +1,86 @@
+package com.spendingapp.benchmarks;
+
+import com.spendingapp.dto.InsightDto;
+import com.spendingapp.dto.InsightsResponse;
+import com.spendingapp.dto.SpendingDto;
+import com.spendingapp.model.Category;
+import com.spendingapp.model.Merchant;
+import com.spendingapp.model.SpendingTransaction;
+import java.lang.reflect.Field;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Deterministic spending histories for the benchmarks. A fixed seed keeps runs comparable.
+ */
+final class SyntheticData {
+  static final String[] CATEGORIES = {
+      "Food", "Groceries", "Transport", "Rent", "Utilities", "Entertainment",
+      "Health", "Shopping", "Travel", "Subscriptions", "Education", "Gifts"
+  };
+  static final String[] MERCHANTS = {
+      "Whole Foods", "Uber", "Netflix", "Amazon", "Shell", "Starbucks", "Target",
+      "Spotify", "Delta", "CVS", "Costco", "Lyft", "Apple", "Trader Joe's", "IKEA"
+  };
+  private static final LocalDate START = LocalDate.of(2020, 1, 1);
+
+  private SyntheticData() {
+  }
+
+  static List<SpendingTransaction> transactions(int rows) {
+    SplittableRandom random = new SplittableRandom(42);
+    List<SpendingTransaction> transactions = new ArrayList<>(rows);
+    for (int i = 0; i < rows; i++) {
+      SpendingTransaction transaction = new SpendingTransaction();
+      setId(transaction, i + 1L);
+      transaction.setAmount(BigDecimal.valueOf(random.nextLong(1, 50_000), 2));
+      int category = random.nextInt(CATEGORIES.length);
+      int merchant = random.nextInt(MERCHANTS.length);
+      transaction.setCategory(new Category(categoryId(category), CATEGORIES[category]));
+      transaction.setMerchant(new Merchant(merchant + 1, MERCHANTS[merchant]));
+      transaction.setTransactionDate(START.plusDays(random.nextInt(5 * 365)));
+      transactions.add(transaction);
+    }
+    return transactions;
+  }
+
+  /** Dictionary id of {@code CATEGORIES[index]}; ids start at 1 like the table's identity column. */
+  static int categoryId(int index) {
+    return index + 1;
+  }
+
+  // The entity has no id setter; ids normally come from the sequence
+  private static void setId(SpendingTransaction transaction, long id) {
+    try {
+      Field field = SpendingTransaction.class.getDeclaredField("id");
+      field.setAccessible(true);
+      field.set(transaction, id);
+    } catch (ReflectiveOperationException ex) {
+      throw new IllegalStateException("Cannot set transaction id", ex);
+    }
+  }
+
+  static List<SpendingDto> dtos(int rows) {
+    List<SpendingDto> dtos = new ArrayList<>(rows);
+    for (SpendingTransaction t : transactions(rows)) {
+      dtos.add(new SpendingDto(
+          t.getId(), t.getAmount(), t.getCategory().getName(), t.getMerchant().getName(), t.getTransactionDate()));
+    }
+    return dtos;
+  }
+
+  static InsightsResponse insights() {
+    SplittableRandom random = new SplittableRandom(42);
+    List<InsightDto> byCategory = new ArrayList<>(CATEGORIES.length);
+    BigDecimal total = BigDecimal.ZERO;
+    for (String category : CATEGORIES) {
+      BigDecimal amount = BigDecimal.valueOf(random.nextLong(1, 10_000_000), 2);
+      byCategory.add(new InsightDto(category, amount));
+      total = total.add(amount);
+    }
+    return new InsightsResponse(total, 1_000, byCategory);
+  }
+}
@@ -0,0 +1,101 @@
+package com.spendingapp.benchmarks;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.core.task.TaskExecutor;
+
+/**
+ * Requests per second when {@value #REQUESTS} arrive at once, each waiting on remote I/O (token
+ * verification, Redis) and then holding one of a small pool of database connections, on
+ * Tomcat's default 200 platform threads versus one virtual thread per request. The {@code
+ * virtual} case needs a Java 21 runtime (build with {@code -Pjava21}).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class ThreadModelBenchmark {
+  private static final int REQUESTS = 5_000;
+  private static final int PLATFORM_THREADS = 200;
+
+  @Param({"platform", "virtual"})
+  public String threads;
+
+  @Param({"5", "50"})
+  public int remoteMillis;
+
+  @Param({"10"})
+  public int poolSize;
+
+  private TaskExecutor executor;
+  private ExecutorService platformPool;
+  private Semaphore connections;
+
+  @Setup
+  public void setUp() {
+    connections = new Semaphore(poolSize, true);
+    if (threads.equals("virtual")) {
+      SimpleAsyncTaskExecutor virtual = new SimpleAsyncTaskExecutor("request-");
+      virtual.setVirtualThreads(true);
+      executor = virtual;
+    } else {
+      platformPool = Executors.newFixedThreadPool(PLATFORM_THREADS);
+      executor = platformPool::execute;
+    }
+  }
+
+  @TearDown
+  public void tearDown() {
+    if (platformPool != null) {
+      platformPool.shutdownNow();
+    }
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(REQUESTS)
+  public void requests() throws InterruptedException {
+    CountDownLatch done = new CountDownLatch(REQUESTS);
+    for (int i = 0; i < REQUESTS; i++) {
+      executor.execute(() -> {
+        try {
+          handle();
+        } catch (InterruptedException ex) {
+          Thread.currentThread().interrupt();
+        } finally {
+          done.countDown();
+        }
+      });
+    }
+    done.await();
+  }
+
+  private void handle() throws InterruptedException {
+    Thread.sleep(remoteMillis);
+    connections.acquire();
+    try {
+      // A short query
+      Thread.sleep(1);
+    } finally {
+      connections.release();
+    }
+  }
+}
@@ -1,4 +1,4 @@
-import React, { useEffect, useMemo, useState } from "react";
+import React, { useEffect, useMemo, useRef, useState } from "react";
 import { createUserWithEmailAndPassword, onAuthStateChanged, sendEmailVerification, sendPasswordResetEmail, signInWithEmailAndPassword, signOut, User } from "firebase/auth";
 import { auth } from "./auth/firebase";
 import InsightsChart from "./components/InsightsChart";
@@ -12,6 +12,11 @@ type Spending = {
   transactionDate: string;
 };
 
+type SpendingPage = {
+  items: Spending[];
+  nextCursor: string | null;
+};
+
 type Insight = {
   category: string;
   total: number;
@@ -23,6 +28,22 @@ type InsightsResponse = {
   byCategory: Insight[];
 };
 
+type DashboardResponse = {
+  transactions: SpendingPage;
+  insights: InsightsResponse;
+};
+
+// Pushed on GET /events after a transaction is created, on this or any other device
+type SpendingUpdate = {
+  transaction: Spending;
+  category: Insight;
+  totalSpent: number;
+  transactionCount: number;
+};
+
+const byNewest = (a: Spending, b: Spending) =>
+  b.transactionDate.localeCompare(a.transactionDate) || b.id - a.id;
+
 const apiBase = import.meta.env.VITE_API_BASE || "/api";
 
 export default function App() {
@@ -34,15 +55,21 @@ export default function App() {
   const [isRegistering, setIsRegistering] = useState(false);
   const [error, setError] = useState<string | null>(null);
   const [spending, setSpending] = useState<Spending[]>([]);
+  const [nextCursor, setNextCursor] = useState<string | null>(null);
+  const [loadingMore, setLoadingMore] = useState(false);
   const [insights, setInsights] = useState<InsightsResponse | null>(null);
   const [loading, setLoading] = useState(false);
   const [registering, setRegistering] = useState(false);
   const [newAmount, setNewAmount] = useState("");
   const [newCategory, setNewCategory] = useState("");
   const [newMerchant, setNewMerchant] = useState("");
+  const [merchantSuggestions, setMerchantSuggestions] = useState<string[]>([]);
   const [newDate, setNewDate] = useState("");
   const [submitting, setSubmitting] = useState(false);
   const [formError, setFormError] = useState<string | null>(null);
+  const [importing, setImporting] = useState(false);
+  const [importMessage, setImportMessage] = useState<string | null>(null);
+  const [importError, setImportError] = useState<string | null>(null);
   const [verificationMessage, setVerificationMessage] = useState<string | null>(null);
   const [verificationError, setVerificationError] = useState<string | null>(null);
   const [resending, setResending] = useState(false);
@@ -51,6 +78,11 @@ export default function App() {
   const [resetMessage, setResetMessage] = useState<string | null>(null);
   const [resetError, setResetError] = useState<string | null>(null);
   const [sendingReset, setSendingReset] = useState(false);
+  // While the event stream is open, writes are reflected through it instead of a full reload
+  const liveConnected = useRef(false);
+  // Read by the stream handler, which outlives the render it was created in
+  const nextCursorRef = useRef<string | null>(null);
+  nextCursorRef.current = nextCursor;
 
   useEffect(() => {
     return onAuthStateChanged(auth, async (currentUser) => {
@@ -61,6 +93,7 @@ export default function App() {
       } else {
         setToken("");
         setSpending([]);
+        setNextCursor(null);
         setInsights(null);
       }
     });
@@ -277,7 +310,9 @@ export default function App() {
       setNewCategory("");
       setNewMerchant("");
       setNewDate("");
-      await loadData();
+      if (!liveConnected.current) {
+        await loadData();
+      }
     } catch (err: any) {
       setFormError(err.message || "Failed to add transaction");
     } finally {
@@ -285,6 +320,47 @@ export default function App() {
     }
   };
 
+  const handleImportFile = async (event: React.ChangeEvent<HTMLInputElement>) => {
+    const file = event.target.files?.[0];
+    event.target.value = "";
+    if (!token || !file) return;
+    setImportMessage(null);
+    setImportError(null);
+
+    const isNdjson = /\.(ndjson|jsonl)$/i.test(file.name);
+    setImporting(true);
+    try {
+      const response = await fetch(`${apiBase}/spending/import`, {
+        method: "POST",
+        headers: {
+          ...authHeaders,
+          "Content-Type": isNdjson ? "application/x-ndjson" : "text/csv"
+        },
+        body: file
+      });
+
+      if (!response.ok) {
+        throw new Error("Failed to import statement");
+      }
+
+      const result: { imported: number; rejected: number; errors: { line: number; message: string }[] } =
+        await response.json();
+      const firstError = result.errors[0];
+      setImportMessage(
+        `Imported ${result.imported} transactions` +
+        (result.rejected > 0 ? `, skipped ${result.rejected}` : "") +
+        (firstError ? ` (line ${firstError.line}: ${firstError.message})` : "")
+      );
+      if (!liveConnected.current) {
+        await loadData();
+      }
+    } catch (err: any) {
+      setImportError(err.message || "Failed to import statement");
+    } finally {
+      setImporting(false);
+    }
+  };
+
   const handleAmountChange = (value: string) => {
     if (value === "" || /^\d+(\.\d{0,2})?$/.test(value)) {
       setNewAmount(value);
@@ -331,19 +407,16 @@ export default function App() {
     setLoading(true);
     setError(null);
     try {
-      const [spendingRes, insightsRes] = await Promise.all([
-        fetch(`${apiBase}/spending`, { headers: authHeaders }),
-        fetch(`${apiBase}/insights`, { headers: authHeaders })
-      ]);
+      const response = await fetch(`${apiBase}/dashboard`, { headers: authHeaders });
 
-      if (!spendingRes.ok || !insightsRes.ok) {
+      if (!response.ok) {
         throw new Error("Failed to load spending data");
       }
 
-      const spendingJson: Spending[] = await spendingRes.json();
-      const insightsJson: InsightsResponse = await insightsRes.json();
-      setSpending(spendingJson);
-      setInsights(insightsJson);
+      const dashboard: DashboardResponse = await response.json();
+      setSpending(dashboard.transactions.items);
+      setNextCursor(dashboard.transactions.nextCursor);
+      setInsights(dashboard.insights);
     } catch (err: any) {
       setError(err.message || "Failed to load data");
     } finally {
@@ -351,12 +424,146 @@ export default function App() {
     }
   };
 
+  const loadMore = async () => {
+    if (!token || !nextCursor) return;
+    setLoadingMore(true);
+    setError(null);
+    try {
+      const response = await fetch(
+        `${apiBase}/spending?cursor=${encodeURIComponent(nextCursor)}`,
+        { headers: authHeaders }
+      );
+
+      if (!response.ok) {
+        throw new Error("Failed to load more transactions");
+      }
+
+      const page: SpendingPage = await response.json();
+      setSpending((current) => [...current, ...page.items]);
+      setNextCursor(page.nextCursor);
+    } catch (err: any) {
+      setError(err.message || "Failed to load more transactions");
+    } finally {
+      setLoadingMore(false);
+    }
+  };
+
   useEffect(() => {
     if (token) {
       loadData();
     }
   }, [token]);
 
+  // Debounced so fast typing asks once; a stale answer is dropped if the input changed meanwhile
+  useEffect(() => {
+    if (!token) return;
+    let cancelled = false;
+    const timer = setTimeout(async () => {
+      try {
+        const response = await fetch(
+          `${apiBase}/merchants/suggest?prefix=${encodeURIComponent(newMerchant)}&limit=8`,
+          { headers: authHeaders }
+        );
+        if (response.ok && !cancelled) {
+          setMerchantSuggestions(await response.json());
+        }
+      } catch {
+        // Suggestions are optional; the field still takes any name
+      }
+    }, 150);
+    return () => {
+      cancelled = true;
+      clearTimeout(timer);
+    };
+  }, [token, newMerchant]);
+
+  const applySpendingUpdate = (update: SpendingUpdate) => {
+    setSpending((current) => {
+      if (current.some((item) => item.id === update.transaction.id)) {
+        return current;
+      }
+      const oldest = current[current.length - 1];
+      // Rows older than the last loaded one arrive with "load more" instead
+      if (nextCursorRef.current && oldest && byNewest(update.transaction, oldest) > 0) {
+        return current;
+      }
+      return [...current, update.transaction].sort(byNewest);
+    });
+    setInsights((current) => {
+      const others = (current?.byCategory ?? []).filter((insight) => insight.category !== update.category.category);
+      return {
+        totalSpent: update.totalSpent,
+        transactionCount: update.transactionCount,
+        byCategory: [...others, update.category].sort((a, b) => a.category.localeCompare(b.category))
+      };
+    });
+  };
+
+  // Server-Sent Events over fetch, since EventSource can't send the Authorization header
+  useEffect(() => {
+    if (!token) return;
+    const controller = new AbortController();
+    let retryDelay = 1000;
+
+    const handleEvent = (event: string, data: string) => {
+      if (event === "spending") {
+        applySpendingUpdate(JSON.parse(data));
+      } else if (event === "reload") {
+        loadData();
+      }
+    };
+
+    const connect = async () => {
+      while (!controller.signal.aborted) {
+        try {
+          const response = await fetch(`${apiBase}/events`, {
+            headers: { ...authHeaders, Accept: "text/event-stream" },
+            signal: controller.signal
+          });
+          if (!response.ok || !response.body) {
+            throw new Error("Event stream unavailable");
+          }
+          liveConnected.current = true;
+          retryDelay = 1000;
+          const reader = response.body.pipeThrough(new TextDecoderStream()).getReader();
+          let buffer = "";
+          for (;;) {
+            const { value, done } = await reader.read();
+            if (done) break;
+            buffer += value;
+            let boundary;
+            while ((boundary = buffer.indexOf("\n\n")) >= 0) {
+              const block = buffer.slice(0, boundary);
+              buffer = buffer.slice(boundary + 2);
+              let event = "message";
+              const data: string[] = [];
+              for (const line of block.split("\n")) {
+                if (line.startsWith("event:")) event = line.slice(6).trim();
+                else if (line.startsWith("data:")) data.push(line.slice(5).replace(/^ /, ""));
+              }
+              if (data.length > 0) {
+                handleEvent(event, data.join("\n"));
+              }
+            }
+          }
+        } catch (err) {
+          if (controller.signal.aborted) return;
+        } finally {
+          liveConnected.current = false;
+        }
+        // Anything written while disconnected is picked up by a reload on reconnect
+        await new Promise((resolve) => setTimeout(resolve, retryDelay));
+        retryDelay = Math.min(retryDelay * 2, 30000);
+        if (!controller.signal.aborted) {
+          loadData();
+        }
+      }
+    };
+
+    connect();
+    return () => controller.abort();
+  }, [token]);
+
   // Format currency with nice styling
   const formatCurrency = (amount: number) => {
     return new Intl.NumberFormat('en-US', {
@@ -692,6 +899,13 @@ export default function App() {
                     ))
                   )}
                 </div>
+                {nextCursor && (
+                  <div style={{ textAlign: 'center', marginTop: '16px' }}>
+                    <button className="secondary" onClick={loadMore} disabled={loadingMore}>
+                      <span>{loadingMore ? "Loading..." : "Load more"}</span>
+                    </button>
+                  </div>
+                )}
               </section>
             </div>
 
@@ -731,11 +945,18 @@ export default function App() {
                   <input
                     type="text"
                     placeholder="Any merchant name"
+                    list="merchant-suggestions"
+                    autoComplete="off"
                     value={newMerchant}
                     onChange={(e) => setNewMerchant(e.target.value)}
                     required
                     disabled={submitting}
                   />
+                  <datalist id="merchant-suggestions">
+                    {merchantSuggestions.map((merchant) => (
+                      <option key={merchant} value={merchant} />
+                    ))}
+                  </datalist>
                 </label>
                 <label>
                   Date
@@ -753,6 +974,18 @@ export default function App() {
                   <span>{submitting ? "Saving..." : "Add Transaction"}</span>
                 </button>
               </form>
+              <label style={{ display: 'block', marginTop: '16px' }}>
+                Import a statement (CSV with amount, category, merchant, transactionDate columns, or NDJSON)
+                <input
+                  type="file"
+                  accept=".csv,.ndjson,.jsonl,text/csv"
+                  onChange={handleImportFile}
+                  disabled={importing}
+                />
+              </label>
+              {importing && <p className="muted">Importing...</p>}
+              {importMessage && <p className="muted">{importMessage}</p>}
+              {importError && <p className="error">{importError}</p>}
             </section>
           </>
         )}
@@ -0,0 +1,15 @@
+#!/bin/bash
+# Clones the primary into an empty data directory and starts it as a hot standby.
+set -e
+
+if [ ! -s "$PGDATA/PG_VERSION" ]; then
+  until pg_basebackup --host=postgres --username=replicator --pgdata="$PGDATA" \
+      --wal-method=stream --write-recovery-conf --progress; do
+    echo "Waiting for the primary to accept replication connections..."
+    rm -rf "${PGDATA:?}"/*
+    sleep 2
+  done
+  chmod 700 "$PGDATA"
+fi
+
+exec docker-entrypoint.sh postgres -c hot_standby=on
@@ -0,0 +1,40 @@
+-- Seed data for local development. docker-compose adds this directory to the backend's
+-- Flyway locations, so it runs after the schema migrations (and again whenever it changes).
+-- Replace the firebase_uid below with your actual Firebase UID.
+
+INSERT INTO users (firebase_uid, email, created_at)
+VALUES ('tZZwIRG5Q7XyH4tarlrQCNMYkS02', 'anujsharma45545@gmail.com', NOW())
+ON CONFLICT (firebase_uid) DO NOTHING;
+
+INSERT INTO categories (name)
+VALUES ('Groceries'), ('Coffee'), ('Utilities'), ('Dining'), ('Rent')
+ON CONFLICT DO NOTHING;
+
+INSERT INTO merchants (name)
+VALUES ('Whole Foods'), ('Starbucks'), ('PG&E'), ('Chipotle'), ('Apartment')
+ON CONFLICT DO NOTHING;
+
+-- Only for a user with no transactions yet, so re-running doesn't duplicate them
+INSERT INTO transactions (user_id, amount, category_id, merchant_id, transaction_date, created_at)
+SELECT u.id, s.amount, c.id, m.id, s.transaction_date, NOW()
+FROM (
+  VALUES
+    (54.21, 'Groceries', 'Whole Foods', CURRENT_DATE - INTERVAL '1 day'),
+    (18.75, 'Coffee', 'Starbucks', CURRENT_DATE - INTERVAL '2 days'),
+    (120.00, 'Utilities', 'PG&E', CURRENT_DATE - INTERVAL '4 days'),
+    (42.10, 'Dining', 'Chipotle', CURRENT_DATE - INTERVAL '6 days'),
+    (250.00, 'Rent', 'Apartment', CURRENT_DATE - INTERVAL '10 days')
+) AS s (amount, category, merchant, transaction_date)
+JOIN users u ON u.firebase_uid = 'tZZwIRG5Q7XyH4tarlrQCNMYkS02'
+JOIN categories c ON c.name = s.category
+JOIN merchants m ON m.name = s.merchant
+WHERE NOT EXISTS (SELECT 1 FROM transactions t WHERE t.user_id = u.id);
+
+DELETE FROM category_monthly_rollups
+WHERE user_id = (SELECT id FROM users WHERE firebase_uid = 'tZZwIRG5Q7XyH4tarlrQCNMYkS02');
+
+INSERT INTO category_monthly_rollups (user_id, category_id, month_start, total, tx_count)
+SELECT user_id, category_id, DATE_TRUNC('month', transaction_date)::DATE, SUM(amount), COUNT(*)
+FROM transactions
+WHERE user_id = (SELECT id FROM users WHERE firebase_uid = 'tZZwIRG5Q7XyH4tarlrQCNMYkS02')
+GROUP BY user_id, category_id, DATE_TRUNC('month', transaction_date)::DATE;